@@ -22,7 +22,10 @@ case "$CMD" in
   test )
    mvn test
    ;;
+  bench )
+   mvn -Dgpg.skip install && (cd lazyj-benchmarks && mvn clean package)
+   ;;
   * )
-   echo "./build.sh test|install|release"
+   echo "./build.sh test|install|bench|release"
    ;;
 esac
\ No newline at end of file
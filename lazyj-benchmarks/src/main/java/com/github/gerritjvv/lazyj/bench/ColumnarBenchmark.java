@@ -0,0 +1,88 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+import com.github.gerritjvv.lazyj.columnar.BatchSeq;
+import com.github.gerritjvv.lazyj.columnar.RecordBatch;
+import com.github.gerritjvv.lazyj.columnar.Schema;
+import com.github.gerritjvv.lazyj.vec.PersistentVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filter and sum over records already in memory, as a seq of objects and as columnar batches.<br/>
+ * The batches are built once in setup, the conversion cost is measured by columnarFromSeq.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnarBenchmark {
+
+    private static final Schema<Event> SCHEMA = Schema.<Event>builder()
+            .longColumn("ts", e -> e.ts)
+            .doubleColumn("value", e -> e.value)
+            .build();
+
+    @Param({"1000000"})
+    public int size;
+
+    private Event[] events;
+    private PersistentVector<RecordBatch> batches;
+
+    @Setup
+    public void setup() {
+        Integer[] values = Data.random(size, 1000);
+        events = new Event[size];
+
+        for (int i = 0; i < size; i++)
+            events[i] = new Event(i, values[i]);
+
+        batches = SeqUtil.vec(BatchSeq.from(SeqUtil.seq(events), SCHEMA).batches());
+    }
+
+    @Benchmark
+    public double seqFilterSum() {
+        Seq<Event> seq = SeqUtil.seq(events);
+        return seq.filter(e -> e.ts % 4 != 0).reduce(0.0, (acc, e) -> acc + e.value);
+    }
+
+    @Benchmark
+    public double columnarFilterSum() {
+        return BatchSeq.of(batches.seq()).filterLong("ts", ts -> ts % 4 != 0).sumDouble("value");
+    }
+
+    @Benchmark
+    public double columnarFromSeq() {
+        return BatchSeq.from(SeqUtil.seq(events), SCHEMA).filterLong("ts", ts -> ts % 4 != 0).sumDouble("value");
+    }
+
+    @Benchmark
+    public double streamFilterSum() {
+        return Stream.of(events).filter(e -> e.ts % 4 != 0).mapToDouble(e -> e.value).sum();
+    }
+
+    static final class Event {
+        final long ts;
+        final double value;
+
+        Event(long ts, double value) {
+            this.ts = ts;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concat and mapcat, depth is the number of seqs concatenated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcatBenchmark {
+
+    @Param({"10", "100"})
+    public int depth;
+
+    @Param({"100"})
+    public int size;
+
+    private Integer[] data;
+
+    @Setup
+    public void setup() {
+        data = Data.integers(size);
+    }
+
+    @Benchmark
+    public Object seqConcat() {
+        Seq<Integer> seq = SeqUtil.seq(data);
+
+        for (int i = 1; i < depth; i++)
+            seq = seq.concat(SeqUtil.seq(data));
+
+        return seq.toList();
+    }
+
+    @Benchmark
+    public Object streamConcat() {
+        Stream<Integer> stream = Stream.of(data);
+
+        for (int i = 1; i < depth; i++)
+            stream = Stream.concat(stream, Stream.of(data));
+
+        return stream.collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object seqMapcat() {
+        return SeqUtil.range(0, depth)
+                .mapcat(i -> SeqUtil.seq(data))
+                .toList();
+    }
+
+    @Benchmark
+    public Object streamFlatMap() {
+        return Stream.iterate(0, i -> i + 1)
+                .limit(depth)
+                .flatMap(i -> Stream.of(data))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.gerritjvv.lazyj.Functional;
+import com.github.gerritjvv.lazyj.Seq;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Threads sharing one seq.<br/>
+ * The walkRealized benchmarks read a realized seq, where every first() still takes the LazySeq lock or reads the
+ * MapMergeSeq volatile memo. The realize benchmarks share a frontier into an infinite unrealized seq that all threads
+ * advance, so that they race on realizing the same nodes. Run with 1 to 64 threads e.g "-t 1", "-t 16", "-t 64";
+ * the realizeAndRead group has one thread realizing and three reading the memoized first of the frontier.
+ * <p/>
+ * The frontier only holds the current node, so the infinite seqs are not retained.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+
+    private static final int REALIZED_SIZE = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Realized {
+        Seq<Integer> lazy;
+        Seq<Integer> mapped;
+
+        @Setup
+        public void setup() {
+            lazy = numbers(0, REALIZED_SIZE);
+            mapped = numbers(0, REALIZED_SIZE).map(v -> v + 1);
+
+            //realize
+            lazy.count();
+            mapped.count();
+        }
+    }
+
+    @State(Scope.Group)
+    public static class Frontier {
+        final AtomicReference<Seq<Integer>> lazy = new AtomicReference<>();
+        final AtomicReference<Seq<Integer>> mapped = new AtomicReference<>();
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            lazy.set(numbers(0, Integer.MAX_VALUE));
+            mapped.set(numbers(0, Integer.MAX_VALUE).map(v -> v + 1));
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void walkRealizedLazySeq(Realized state, Blackhole bh) {
+        walk(state.lazy, bh);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void walkRealizedMapMergeSeq(Realized state, Blackhole bh) {
+        walk(state.mapped, bh);
+    }
+
+    @Benchmark
+    @Group("realizeLazySeq")
+    @GroupThreads(4)
+    public Integer realizeLazySeq(Frontier state) {
+        return advance(state.lazy);
+    }
+
+    @Benchmark
+    @Group("realizeMapMergeSeq")
+    @GroupThreads(4)
+    public Integer realizeMapMergeSeq(Frontier state) {
+        return advance(state.mapped);
+    }
+
+    @Benchmark
+    @Group("realizeAndRead")
+    @GroupThreads(1)
+    public Integer realizeAndReadWriter(Frontier state) {
+        return advance(state.mapped);
+    }
+
+    @Benchmark
+    @Group("realizeAndRead")
+    @GroupThreads(3)
+    public Integer realizeAndReadReader(Frontier state) {
+        return state.mapped.get().first();
+    }
+
+    private static void walk(Seq<Integer> seq, Blackhole bh) {
+        Integer v;
+
+        while ((v = seq.first()) != null) {
+            bh.consume(v);
+            seq = seq.next();
+        }
+    }
+
+    /**
+     * Realize the node after the frontier and move the frontier to it, threads that lose the race read the node
+     * another thread realized.
+     */
+    private static Integer advance(AtomicReference<Seq<Integer>> frontier) {
+        Seq<Integer> seq = frontier.get();
+        Seq<Integer> next = seq.next();
+        Integer v = next.first();
+
+        frontier.compareAndSet(seq, next);
+        return v;
+    }
+
+    private static Seq<Integer> numbers(int from, int to) {
+        return from < to ? Functional.lazySeq(from, () -> numbers(from + 1, to)) : Functional.lazySeqEmpty();
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.util.Random;
+
+/**
+ * Benchmark input data, generated from a fixed seed so that runs are comparable.
+ */
+final class Data {
+
+    private static final long SEED = 42;
+
+    private Data() {
+    }
+
+    static Integer[] integers(int size) {
+        Integer[] data = new Integer[size];
+
+        for (int i = 0; i < size; i++)
+            data[i] = i;
+
+        return data;
+    }
+
+    /**
+     * @param distinct the number of distinct values
+     */
+    static Integer[] random(int size, int distinct) {
+        Random random = new Random(SEED);
+        Integer[] data = new Integer[size];
+
+        for (int i = 0; i < size; i++)
+            data[i] = random.nextInt(distinct);
+
+        return data;
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.gerritjvv.lazyj.SeqUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Distinct and sorted over random data with size / 10 distinct values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistinctSortedBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] data;
+
+    @Setup
+    public void setup() {
+        data = Data.random(size, Math.max(1, size / 10));
+    }
+
+    @Benchmark
+    public Object seqDistinct() {
+        return SeqUtil.seq(data).distinct().toList();
+    }
+
+    @Benchmark
+    public Object streamDistinct() {
+        return Stream.of(data).distinct().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object seqSorted() {
+        return SeqUtil.seq(data).sorted().toList();
+    }
+
+    @Benchmark
+    public Object streamSorted() {
+        return Stream.of(data).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+import com.github.gerritjvv.lazyj.vec.PersistentVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The ways to walk a seq: iterator(), forEach, reduce and first/next, over the same mapped seq.<br/>
+ * The realized benchmarks walk a seq that was already realized, as is, after {@link Seq#compact()}
+ * and as the seq of a {@link PersistentVector}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] data;
+
+    private Seq<Integer> realized;
+    private Seq<Integer> compacted;
+    private PersistentVector<Integer> vector;
+
+    @Setup
+    public void setup() {
+        data = Data.integers(size);
+
+        realized = seq().filter(v -> v % 2 == 0).map(v -> v * 2);
+        realized.count();
+        compacted = seq().filter(v -> v % 2 == 0).map(v -> v * 2).forceEager();
+        vector = SeqUtil.vec(seq().filter(v -> v % 2 == 0).map(v -> v * 2));
+    }
+
+    private Seq<Integer> seq() {
+        return SeqUtil.seq(data).map(v -> v + 1);
+    }
+
+    @Benchmark
+    public void seqIterator(Blackhole bh) {
+        Iterator<Integer> it = seq().iterator();
+
+        while (it.hasNext())
+            bh.consume(it.next());
+    }
+
+    @Benchmark
+    public void seqForEach(Blackhole bh) {
+        seq().forEach(bh::consume);
+    }
+
+    @Benchmark
+    public long seqReduce() {
+        return seq().reduce(0L, (acc, v) -> acc + v);
+    }
+
+    @Benchmark
+    public void seqFirstNext(Blackhole bh) {
+        Seq<Integer> seq = seq();
+        Integer v;
+
+        while ((v = seq.first()) != null) {
+            bh.consume(v);
+            seq = seq.next();
+        }
+    }
+
+    @Benchmark
+    public long seqRealizedReduce() {
+        return realized.reduce(0L, (acc, v) -> acc + v);
+    }
+
+    @Benchmark
+    public long seqCompactedReduce() {
+        return compacted.reduce(0L, (acc, v) -> acc + v);
+    }
+
+    @Benchmark
+    public long seqVectorReduce() {
+        return vector.seq().reduce(0L, (acc, v) -> acc + v);
+    }
+
+    @Benchmark
+    public void seqVectorIterator(Blackhole bh) {
+        for (Integer v : vector.seq())
+            bh.consume(v);
+    }
+
+    @Benchmark
+    public void streamForEach(Blackhole bh) {
+        Stream.of(data).map(v -> v + 1).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public long streamReduce() {
+        return Stream.of(data).map(v -> v + 1).reduce(0L, (acc, v) -> acc + v, Long::sum);
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Map, filter and take pipelines, the consecutive map and filter operations are merged into one seq node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] data;
+
+    @Setup
+    public void setup() {
+        data = Data.integers(size);
+    }
+
+    @Benchmark
+    public Object seqMapFilterTake() {
+        return SeqUtil.seq(data)
+                .map(v -> v + 1)
+                .map(v -> v * 2)
+                .filter(v -> v % 3 == 0)
+                .filter(v -> v % 5 != 0)
+                .take(size / 2)
+                .toList();
+    }
+
+    @Benchmark
+    public Object streamMapFilterTake() {
+        return Stream.of(data)
+                .map(v -> v + 1)
+                .map(v -> v * 2)
+                .filter(v -> v % 3 == 0)
+                .filter(v -> v % 5 != 0)
+                .limit(size / 2)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Alternating map and filter stages, a map after a filter fuses into the FilterMergeSeq so all eight run in one node.
+     */
+    @Benchmark
+    public Object seqMapFilterAlternating() {
+        Seq<Integer> seq = SeqUtil.seq(data);
+
+        for (int i = 0; i < 4; i++)
+            seq = seq.map(v -> v + 1).filter(v -> v % 7 != 0);
+
+        return seq.toList();
+    }
+
+    @Benchmark
+    public Object streamMapFilterAlternating() {
+        Stream<Integer> stream = Stream.of(data);
+
+        for (int i = 0; i < 4; i++)
+            stream = stream.map(v -> v + 1).filter(v -> v % 7 != 0);
+
+        return stream.collect(Collectors.toList());
+    }
+}
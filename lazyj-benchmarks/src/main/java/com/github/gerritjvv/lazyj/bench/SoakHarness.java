@@ -0,0 +1,230 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.github.gerritjvv.lazyj.Functional;
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+
+/**
+ * Long running memory soak of infinite pipelines.<br/>
+ * Each pipeline is walked with each traversal (iterator, forEach, first/next and reduce) for a fixed time, the used heap
+ * is sampled after a full GC every sampleInterval elements, and the growth is reported as the bytes per element slope of
+ * a least squares fit over the samples. A traversal that keeps the head of the seq alive retains every realized node,
+ * tens of bytes per element, so any slope above maxBytesPerElement fails the run with exit code 1.
+ * <p/>
+ * Usage: java -cp lazyj-benchmarks/target/benchmarks.jar com.github.gerritjvv.lazyj.bench.SoakHarness [secondsPerRun] [maxBytesPerElement]
+ */
+public class SoakHarness {
+
+    private static final long SAMPLE_INTERVAL = 500_000;
+
+    //bounded so that distinct over an infinite seq does not grow by design
+    private static final int DISTINCT_WINDOW = 1024;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private final long runNanos;
+    private final double maxBytesPerElement;
+
+    public SoakHarness(long runNanos, double maxBytesPerElement) {
+        this.runNanos = runNanos;
+        this.maxBytesPerElement = maxBytesPerElement;
+    }
+
+    public static void main(String[] args) {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 60;
+        double maxBytesPerElement = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+
+        boolean ok = new SoakHarness(TimeUnit.SECONDS.toNanos(seconds), maxBytesPerElement).runAll();
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    public boolean runAll() {
+        Map<String, Supplier<Seq<Long>>> pipelines = new LinkedHashMap<>();
+
+        pipelines.put("repeatedly", SoakHarness::numbers);
+        pipelines.put("iterator source", () -> SeqUtil.seq(new CountingIterator()));
+        pipelines.put("map/filter", () -> numbers().map(v -> v * 3).filter(v -> v % 2 == 0).map(v -> v + 1));
+        pipelines.put("distinct", () -> numbers().distinct(lruSet(DISTINCT_WINDOW)));
+        pipelines.put("concat", () -> numbers().take(1000).concat(numbers()));
+        pipelines.put("treeSeq", () -> SeqUtil.treeSeq(v -> v < 0, v -> numbers(), -1L));
+
+        boolean ok = true;
+
+        for (Map.Entry<String, Supplier<Seq<Long>>> pipeline : pipelines.entrySet())
+            for (Traversal traversal : Traversal.values())
+                ok &= run(pipeline.getKey(), pipeline.getValue(), traversal);
+
+        return ok;
+    }
+
+    private boolean run(String name, Supplier<Seq<Long>> pipeline, Traversal traversal) {
+        Sampler sampler = new Sampler(System.nanoTime() + runNanos);
+
+        boolean outOfMemory = false;
+
+        try {
+            traversal.walk(pipeline, sampler);
+        } catch (Stop e) {
+            //the run time is up
+        } catch (OutOfMemoryError e) {
+            //the retained nodes are unreachable once the traversal unwound, so the next pipelines can still run
+            outOfMemory = true;
+        }
+
+        double slope = sampler.bytesPerElement();
+        boolean ok = !outOfMemory && slope <= maxBytesPerElement;
+
+        System.out.printf("%-16s %-10s elements: %12d samples: %4d bytes/element: %10.3f %s%n",
+                name, traversal.name(), sampler.elements, sampler.samples, slope,
+                ok ? "OK" : outOfMemory ? "FAIL retained head (out of memory)" : "FAIL retained head");
+
+        return ok;
+    }
+
+    private static Seq<Long> numbers() {
+        AtomicLong counter = new AtomicLong();
+        return Functional.repeatedly(counter::incrementAndGet);
+    }
+
+    private static <T> Set<T> lruSet(int size) {
+        return Collections.newSetFromMap(new LinkedHashMap<T, Boolean>(size * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<T, Boolean> eldest) {
+                return size() > size;
+            }
+        });
+    }
+
+    /**
+     * Thrown from inside forEach and reduce to stop the traversal of an infinite seq.
+     */
+    private static final class Stop extends RuntimeException {
+        Stop() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class CountingIterator implements Iterator<Long> {
+        private long i;
+
+        @Override
+        public boolean hasNext() {
+            return true;
+        }
+
+        @Override
+        public Long next() {
+            return ++i;
+        }
+    }
+
+    /**
+     * Counts elements, samples the heap and throws {@link Stop} when the deadline has passed.<br/>
+     * Keeps running sums for the least squares fit so that the sampler itself does not grow.
+     */
+    private final class Sampler {
+        private final long deadline;
+
+        long elements;
+        int samples;
+
+        private double sumX;
+        private double sumY;
+        private double sumXY;
+        private double sumXX;
+
+        Sampler(long deadline) {
+            this.deadline = deadline;
+        }
+
+        void accept(Object v) {
+            if (++elements % SAMPLE_INTERVAL != 0)
+                return;
+
+            //the first sample is taken after warmup, the rest measure growth
+            double used = usedHeapAfterGc();
+            double x = elements;
+
+            samples++;
+            sumX += x;
+            sumY += used;
+            sumXY += x * used;
+            sumXX += x * x;
+
+            if (System.nanoTime() > deadline)
+                throw new Stop();
+        }
+
+        double bytesPerElement() {
+            if (samples < 2)
+                return 0;
+
+            double d = samples * sumXX - sumX * sumX;
+            return d == 0 ? 0 : (samples * sumXY - sumX * sumY) / d;
+        }
+
+        private long usedHeapAfterGc() {
+            //two collections so that objects with finalizers or weak references are gone too
+            System.gc();
+            System.gc();
+
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    private enum Traversal {
+        ITERATOR {
+            @Override
+            void walk(Supplier<Seq<Long>> pipeline, Sampler sampler) {
+                Iterator<Long> it = pipeline.get().iterator();
+
+                while (it.hasNext())
+                    sampler.accept(it.next());
+            }
+        },
+        FOR_EACH {
+            @Override
+            void walk(Supplier<Seq<Long>> pipeline, Sampler sampler) {
+                pipeline.get().forEach(sampler::accept);
+            }
+        },
+        FIRST_NEXT {
+            @Override
+            void walk(Supplier<Seq<Long>> pipeline, Sampler sampler) {
+                Seq<Long> seq = pipeline.get();
+                Long v;
+
+                while ((v = seq.first()) != null) {
+                    sampler.accept(v);
+                    seq = seq.next();
+                }
+            }
+        },
+        REDUCE {
+            @Override
+            void walk(Supplier<Seq<Long>> pipeline, Sampler sampler) {
+                pipeline.get().reduce(0L, (acc, v) -> {
+                    sampler.accept(v);
+                    return acc + v;
+                });
+            }
+        };
+
+        /**
+         * The seq is created inside walk so that no caller frame holds its head.
+         */
+        abstract void walk(Supplier<Seq<Long>> pipeline, Sampler sampler);
+    }
+}
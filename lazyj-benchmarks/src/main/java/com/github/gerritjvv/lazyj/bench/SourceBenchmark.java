@@ -0,0 +1,74 @@
+package com.github.gerritjvv.lazyj.bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.gerritjvv.lazyj.SeqUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creating a seq from an array, an iterator and a stream, and reading it to a list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] data;
+    private List<Integer> list;
+
+    @Setup
+    public void setup() {
+        data = Data.integers(size);
+        list = Arrays.asList(data);
+    }
+
+    @Benchmark
+    public Object seqArray() {
+        return SeqUtil.seq(data).toList();
+    }
+
+    @Benchmark
+    public Object seqIterator() {
+        return SeqUtil.seq(list.iterator()).toList();
+    }
+
+    @Benchmark
+    public Object seqStream() {
+        return SeqUtil.seq(list.stream()).toList();
+    }
+
+    @Benchmark
+    public Object seqRange() {
+        return SeqUtil.range(0, size).toList();
+    }
+
+    @Benchmark
+    public Object streamArray() {
+        return Stream.of(data).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object streamIterable() {
+        return list.stream().collect(Collectors.toList());
+    }
+}
@@ -2,6 +2,7 @@ package com.github.gerritjvv.lazyj;
 
 import java.util.concurrent.Callable;
 
+import com.github.gerritjvv.lazyj.jfr.SeqEvents;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 
@@ -32,7 +33,7 @@ public class Delay<T> implements Callable<T> {
     public synchronized T deref() {
         if (fn != null) {
             try {
-                this.val = fn.call();
+                this.val = SeqEvents.delayDeref(fn);
             } catch (Throwable t) {
                 this.exception = t;
             }
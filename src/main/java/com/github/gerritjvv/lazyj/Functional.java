@@ -21,6 +21,7 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import com.github.gerritjvv.lazyj.seq.ObjLongFunction;
+import com.github.gerritjvv.lazyj.seq.ObjLongPredicate;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 
@@ -241,6 +242,17 @@ public class Functional {
         return new MapIndexSeq<>(null, filter, mapper, seq, start);
     }
 
+    /**
+     * Same as {@link #mapIndexed(Seq, ObjLongFunction, ObjLongFunction)} with a filter that does not box its result.
+     */
+    public static <T, R> Seq<R> mapIndexed(Seq<T> seq, ObjLongPredicate<T> filter, ObjLongFunction<T, R> mapper) {
+        return mapIndexed(seq, filter, mapper, 0L);
+    }
+
+    public static <T, R> Seq<R> mapIndexed(Seq<T> seq, ObjLongPredicate<T> filter, ObjLongFunction<T, R> mapper, long start) {
+        return new MapIndexSeq<>(null, filter, mapper, seq, start);
+    }
+
     public static <T, R> R[] map(T[] t, Function<T, R> fn) {
         R[] r = (R[]) new Object[t.length];
 
@@ -0,0 +1,20 @@
+package com.github.gerritjvv.lazyj;
+
+/**
+ * The type of join used by the join operations on {@link Seq}.<br>
+ * For unmatched elements the combiner is called with null in place of the missing side.
+ */
+public enum JoinType {
+    /**
+     * Only elements that have a match on the other side.
+     */
+    INNER,
+    /**
+     * All elements of the left sequence, with or without a match.
+     */
+    LEFT,
+    /**
+     * All elements of both sequences, with or without a match.
+     */
+    FULL
+}
@@ -3,18 +3,36 @@ package com.github.gerritjvv.lazyj;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntBiFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 
+import com.github.gerritjvv.lazyj.jfr.SeqEvents;
+import com.github.gerritjvv.lazyj.metrics.MetricsSink;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.plan.SeqProfile;
+import com.github.gerritjvv.lazyj.seq.DoubleReducer;
+import com.github.gerritjvv.lazyj.seq.LongReducer;
+import com.github.gerritjvv.lazyj.seq.ObjLongFunction;
+import com.github.gerritjvv.lazyj.seq.ObjLongPredicate;
+import com.github.gerritjvv.lazyj.sketch.Sketch;
+
 /**
  * Usage:<br>
  * <p>
@@ -138,6 +156,27 @@ public interface Seq<T> extends Stream<T>, Iterable<T> {
      */
     Seq<T> filter(Predicate<? super T> predicate);
 
+    /**
+     * Only return items for which the predicate returns true, the predicate is called with the item and its index in this sequence.
+     * <p>
+     * [a,b,c,d].filterIndexed( (v, i) -> i % 2 == 0 ) ==> [a,c]
+     *
+     * @param predicate the filter to apply
+     * @return the new sequence
+     */
+    Seq<T> filterIndexed(ObjLongPredicate<? super T> predicate);
+
+    /**
+     * Return the non null results of calling fn with each item and its index in this sequence.
+     * <p>
+     * [a,b,c,d].keepIndexed( (v, i) -> i % 2 == 0 ? v + i : null ) ==> [a0,c2]
+     *
+     * @param fn  the mapping function, return null to leave the item out
+     * @param <R> the type returned
+     * @return the new sequence
+     */
+    <R> Seq<R> keepIndexed(ObjLongFunction<? super T, ? extends R> fn);
+
     /**
      * @param action each item in the sequences is added  to this  consumer
      */
@@ -164,6 +203,120 @@ public interface Seq<T> extends Stream<T>, Iterable<T> {
      */
     <R> R reduce(R init, BiFunction<R, T, R> reducer);
 
+    /**
+     * Lazy running reduce that returns init and then each intermediate result of the reduction.<br>
+     * Works on infinite sequences.
+     * <br>
+     * [1,2,3,4].reductions(0, (a, b) -> a + b) ==> [0,1,3,6,10]
+     *
+     * @param init    the initial value
+     * @param reducer the reducer function
+     * @param <R>     the type of the reduction
+     * @return the sequence of intermediate results
+     */
+    <R> Seq<R> reductions(R init, BiFunction<R, ? super T, R> reducer);
+
+    /**
+     * Same as {@link #reductions(Object, BiFunction)} with a primitive long accumulator that is never boxed.<br>
+     * The stream is lazy and works on infinite sequences.
+     *
+     * @param init    the initial value
+     * @param reducer the reducer function
+     * @return a stream of init and then each intermediate result
+     */
+    LongStream scanLong(long init, LongReducer<? super T> reducer);
+
+    /**
+     * Same as {@link #reductions(Object, BiFunction)} with a primitive double accumulator that is never boxed.<br>
+     * The stream is lazy and works on infinite sequences.
+     *
+     * @param init    the initial value
+     * @param reducer the reducer function
+     * @return a stream of init and then each intermediate result
+     */
+    DoubleStream scanDouble(double init, DoubleReducer<? super T> reducer);
+
+    /**
+     * Eager non lazy operation, modeled after clojure's reducers fold. Do not use with infinite sequences.<br>
+     * Indexed sequences e.g arrays and ranges, and map and filter operations over them, are split recursively into chunks of
+     * at most chunkSize elements that are reduced in parallel in the pool, each chunk starts from identity.get()
+     * and the chunk results are combined in order with combineFn.<br>
+     * Sequences that cannot be split are reduced sequentially on the calling thread.
+     * <br>
+     * SeqUtil.range(0, 5).fold(pool, 2, () -> 0L, Long::sum, (a, b) -> a + b) ==> 10
+     *
+     * @param pool      the pool to run the chunks in
+     * @param chunkSize the max number of elements reduced sequentially
+     * @param identity  returns the initial value of each chunk
+     * @param combineFn combines the results of two chunks
+     * @param reduceFn  the reducer function
+     * @param <R>       the type of the reduction
+     * @return the result of the reduction
+     */
+    <R> R fold(ForkJoinPool pool, int chunkSize, Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn);
+
+    /**
+     * Eager non lazy operation that groups the elements by key, the lists keep the sequence order.<br>
+     * Runs in parallel in the common fork join pool when the sequence can be split, see {@link #fold}.
+     * <br>
+     * [1,2,3,4].groupBy( even ) ==> {false: [1,3], true: [2,4]}
+     *
+     * @param keyFn returns the key of an element
+     * @param <K>   the key type
+     * @return map of key to the elements with that key
+     */
+    <K> Map<K, List<T>> groupBy(Function<? super T, ? extends K> keyFn);
+
+    /**
+     * Eager non lazy operation that counts the elements by key, counts are kept as primitive longs till the result map is created.<br>
+     * Runs in parallel in the common fork join pool when the sequence can be split, see {@link #fold}.
+     * <br>
+     * [1,2,3,4].countBy( even ) ==> {false: 2, true: 2}
+     *
+     * @param keyFn returns the key of an element
+     * @param <K>   the key type
+     * @return map of key to the number of elements with that key
+     */
+    <K> Map<K, Long> countBy(Function<? super T, ? extends K> keyFn);
+
+    /**
+     * Eager non lazy operation, same as countBy(identity).
+     * <br>
+     * [1,1,2].frequencies() ==> {1: 2, 2: 1}
+     *
+     * @return map of element to the number of times it is in the sequence
+     */
+    Map<T, Long> frequencies();
+
+    /**
+     * Eager non lazy operation that summarizes the sequence in a fixed memory sketch.<br>
+     * Runs in parallel in the common fork join pool when the sequence can be split, see {@link #fold},
+     * each chunk updates its own sketch and the chunk sketches are merged.
+     * <br>
+     * seq.sketch(QuantileSketch::new).quantile(0.99)
+     *
+     * @param supplier creates an empty sketch
+     * @param <S>      the sketch type
+     * @return the sketch of all the elements
+     */
+    <S extends Sketch<? super T, S>> S sketch(Supplier<S> supplier);
+
+    /**
+     * Lazy operation that updates the sketch with each element as it is realized, and returns the elements unchanged.<br>
+     * Use to gather statistics while the sequence is consumed by another operation.
+     *
+     * @param sketch the sketch to update
+     * @return a sequence with the same elements
+     */
+    Seq<T> tap(Sketch<? super T, ?> sketch);
+
+    /**
+     * Eager non lazy operation, same as sketch(HyperLogLog::new).estimate().
+     *
+     * @return the approximate number of distinct elements
+     */
+    long approxDistinct();
+
     /**
      * Eager non lazy operation.
      *
@@ -204,6 +357,75 @@ public interface Seq<T> extends Stream<T>, Iterable<T> {
     <R> Seq<R> seq(Iterable<? extends R> it);
 
 
+    /**
+     * Lazily split the sequence into lists of n elements, a last list with less than n elements is dropped.<br>
+     * [1,2,3,4,5].partition(2) ==> [[1,2],[3,4]]
+     *
+     * @param n the number of elements per list
+     * @return the sequence of lists
+     */
+    Seq<List<T>> partition(int n);
+
+    /**
+     * Same as {@link #partition(int)}, with reuseBuffers true all lists share one buffer, and a list is only valid
+     * till the next list in the sequence is realized. Use only when the lists are not kept.
+     *
+     * @param n            the number of elements per list
+     * @param reuseBuffers true to reuse one buffer for all lists
+     * @return the sequence of lists
+     */
+    Seq<List<T>> partition(int n, boolean reuseBuffers);
+
+    /**
+     * Lazily split the sequence into lists of n elements, the last list can have less than n elements.<br>
+     * [1,2,3,4,5].partitionAll(2) ==> [[1,2],[3,4],[5]]
+     *
+     * @param n the number of elements per list
+     * @return the sequence of lists
+     */
+    Seq<List<T>> partitionAll(int n);
+
+    /**
+     * Same as {@link #partitionAll(int)}, with reuseBuffers true all lists share one buffer, and a list is only valid
+     * till the next list in the sequence is realized. Use only when the lists are not kept.
+     *
+     * @param n            the number of elements per list
+     * @param reuseBuffers true to reuse one buffer for all lists
+     * @return the sequence of lists
+     */
+    Seq<List<T>> partitionAll(int n, boolean reuseBuffers);
+
+    /**
+     * Lazily split the sequence into lists each time keyFn returns a different key.<br>
+     * [1,1,2,3,3].partitionBy( identity ) ==> [[1,1],[2],[3,3]]
+     *
+     * @param keyFn returns the key of an element
+     * @return the sequence of lists
+     */
+    Seq<List<T>> partitionBy(Function<? super T, ?> keyFn);
+
+    /**
+     * Lazy sliding window of size elements, starting a new window every step elements, an incomplete last window is dropped.<br>
+     * Consecutive windows share a buffer and are not copied.<br>
+     * [1,2,3,4,5].window(3, 1) ==> [[1,2,3],[2,3,4],[3,4,5]]
+     *
+     * @param size the number of elements per window
+     * @param step the number of elements between the start of two windows
+     * @return the sequence of windows
+     */
+    Seq<List<T>> window(int size, int step);
+
+    /**
+     * Same as {@link #window(int, int)}, with reuseBuffers true all windows share one ring buffer of size elements,
+     * and a window is only valid till the next window in the sequence is realized. Use only when the windows are not kept.
+     *
+     * @param size         the number of elements per window
+     * @param step         the number of elements between the start of two windows
+     * @param reuseBuffers true to reuse one ring buffer for all windows
+     * @return the sequence of windows
+     */
+    Seq<List<T>> window(int size, int step, boolean reuseBuffers);
+
     /**
      * Lazy but uses a cache of items seen of size == unique items in sequence, use with caution, as
      * this can cause a memory leak if the sequence is infinite and have an infinite number of elements.
@@ -221,6 +443,174 @@ public interface Seq<T> extends Stream<T>, Iterable<T> {
      */
     Seq<T> distinct(Set<T> seen);
 
+    /**
+     * Split the sequence into n sequences that share one pass over this sequence through a ring buffer of bufferSize.<br>
+     * A consumer that is bufferSize elements ahead of the slowest consumer waits, memory is bounded by the buffer
+     * and not by how far apart the consumers are.<br>
+     * Each returned sequence must be consumed on its own thread or closed when not needed, closing a sequence releases it
+     * from the buffer, and this sequence's close handlers are called once all returned sequences are closed.
+     *
+     * @param n          the number of sequences to return
+     * @param bufferSize the max number of elements buffered between the fastest and the slowest consumer
+     * @return the n sequences
+     */
+    List<Seq<T>> tee(int n, int bufferSize);
+
+    /**
+     * Split the sequence into n sequences by hash(keyFn(v)) % n, each fed through a bounded queue of queueCapacity.<br>
+     * Elements with the same key go to the same sequence in their original order, different keys can be consumed in parallel.<br>
+     * Each returned sequence must be consumed on its own thread or closed when not needed, a consumer that reads an element
+     * for a shard with a full queue waits till that shard is consumed. This sequence's close handlers are called once all
+     * returned sequences are closed.
+     *
+     * @param n             the number of shards
+     * @param keyFn         returns the key of an element, the key cannot be null
+     * @param queueCapacity the max number of elements buffered per shard
+     * @return the n sequences
+     */
+    List<Seq<T>> shard(int n, Function<? super T, ?> keyFn, int queueCapacity);
+
+    /**
+     * Same as {@link #batch(ExecutorService, int, long, TimeUnit)} and prefetches on a shared daemon thread pool.
+     */
+    Seq<List<T>> batch(int maxSize, long maxDelay, TimeUnit unit);
+
+    /**
+     * Lazily group the elements into lists, a list is emitted when it has maxSize elements or when maxDelay has passed
+     * since its first element, whichever comes first.<br>
+     * The sequence is prefetched on a task in exec into a queue of maxSize elements, so that a list is emitted on time
+     * even when the upstream blocks. Closing the returned sequence stops the prefetch task and calls this sequence's close handlers.
+     *
+     * @param exec     the executor the prefetch task runs on, the task occupies a thread till the sequence is exhausted or closed
+     * @param maxSize  the max number of elements in a list
+     * @param maxDelay the max time to wait for more elements after the first element of a list was received
+     * @param unit     the unit of maxDelay
+     * @return the sequence of lists
+     */
+    Seq<List<T>> batch(ExecutorService exec, int maxSize, long maxDelay, TimeUnit unit);
+
+    /**
+     * Collapse elements with the same key that arrive close together.<br>
+     * Elements are grouped as in {@link #batch(int, long, TimeUnit)}, within each batch the elements with the same key
+     * are merged with mergeFn(previous, element), and one element per key is emitted in the order the keys were first seen.
+     *
+     * @param keyFn    returns the key of an element, the key cannot be null
+     * @param mergeFn  merges two elements with the same key
+     * @param maxBatch the max number of elements in a batch
+     * @param maxDelay the max time to wait for more elements after the first element of a batch was received
+     * @param unit     the unit of maxDelay
+     * @return the coalesced sequence
+     */
+    Seq<T> coalesce(Function<? super T, ?> keyFn, BinaryOperator<T> mergeFn, int maxBatch, long maxDelay, TimeUnit unit);
+
+    /**
+     * Lazy inner hash join, same as hashJoin(other, leftKey, rightKey, combiner, JoinType.INNER, Long.MAX_VALUE).
+     */
+    <U, K, R> Seq<R> hashJoin(Seq<U> other,
+                              Function<? super T, ? extends K> leftKey,
+                              Function<? super U, ? extends K> rightKey,
+                              BiFunction<? super T, ? super U, ? extends R> combiner);
+
+    /**
+     * Hash join this sequence with other, combiner is called for each pair of elements with equal keys.<br>
+     * A hash table is built from other when the first element is realized, and this sequence is streamed lazily past it
+     * keeping its order. For inner joins where both sequences have a known size the table is built from the smaller one,
+     * when that is this sequence other is streamed instead and the output follows the order of other, so the output order
+     * of an inner join of two sized sequences, e.g. arrays or ranges, is unspecified.<br>
+     * For left joins unmatched elements of this sequence are passed to combiner with null.
+     * <p>
+     * When other has more than maxBuildSize elements, both sequences are partitioned by key hash into temp files and each
+     * partition is joined in turn (grace hash join). Elements must then be Serializable and the output order follows the partitions.
+     * <br>
+     * [1,2,3].hashJoin([(1,"a"),(3,"c")], identity, left, (v, p) -> v + p.right) ==> ["1a", "3c"]
+     *
+     * @param other        the sequence to build the hash table from
+     * @param leftKey      returns the key of an element in this sequence
+     * @param rightKey     returns the key of an element in other
+     * @param combiner     combines matched elements
+     * @param type         INNER or LEFT, FULL is not supported
+     * @param maxBuildSize the max number of elements of other to hold in memory before spilling to temp files
+     * @return the joined sequence
+     */
+    <U, K, R> Seq<R> hashJoin(Seq<U> other,
+                              Function<? super T, ? extends K> leftKey,
+                              Function<? super U, ? extends K> rightKey,
+                              BiFunction<? super T, ? super U, ? extends R> combiner,
+                              JoinType type,
+                              long maxBuildSize);
+
+    /**
+     * Lazy inner merge join, same as mergeJoin(other, keyCmp, combiner, JoinType.INNER).
+     */
+    <U, R> Seq<R> mergeJoin(Seq<U> other,
+                            ToIntBiFunction<? super T, ? super U> keyCmp,
+                            BiFunction<? super T, ? super U, ? extends R> combiner);
+
+    /**
+     * Lazy join of two sequences that are both sorted by key, walking the sequences in lockstep.<br>
+     * keyCmp compares the keys of an element of this sequence and an element of other, like a Comparator.<br>
+     * Memory use is O(1) except for runs of elements of other with the same key, which are buffered. Works on infinite sequences.<br>
+     * For left and full joins unmatched elements are passed to combiner with null for the missing side.
+     * <br>
+     * [1,2,3].mergeJoin([1,3,3], compare, (a, b) -> a + b) ==> [2, 6, 6]
+     *
+     * @param other    the other sorted sequence
+     * @param keyCmp   compares the key of an element in this sequence with the key of an element in other
+     * @param combiner combines matched elements
+     * @param type     INNER, LEFT or FULL
+     * @return the joined sequence
+     */
+    <U, R> Seq<R> mergeJoin(Seq<U> other,
+                            ToIntBiFunction<? super T, ? super U> keyCmp,
+                            BiFunction<? super T, ? super U, ? extends R> combiner,
+                            JoinType type);
+
+    /**
+     * Same as instrument(name, sink) with the sink in {@link com.github.gerritjvv.lazyj.metrics.MetricsRegistry},
+     * returns this sequence unchanged when no sink is registered.
+     *
+     * @param name the stage name
+     * @return the instrumented sequence
+     */
+    Seq<T> instrument(String name);
+
+    /**
+     * Lazy operation that records the metrics of this stage of a pipeline to the sink: the elements produced,
+     * the time taken to realize each element including all the stages before it, and close events.
+     * When this sequence is a merged filter the elements rejected by its filters are recorded too.
+     * <br>
+     * seq.map(parse).filter(valid).instrument("parse", sink).map(enrich).instrument("enrich", sink)
+     *
+     * @param name the stage name
+     * @param sink the sink to record to
+     * @return the instrumented sequence
+     */
+    Seq<T> instrument(String name, MetricsSink sink);
+
+    /**
+     * Describe the nodes of this pipeline from the source to this sequence, showing which map, filter and take
+     * operations were merged into one node, which nodes memoize and where an unrealized lazy sequence hides the rest
+     * of the pipeline. Nothing is realized.
+     * <br>
+     * SeqUtil.range(0, 10).map(f).map(g).filter(p).explain() ==> [RangeSeq range [0, 10), FilterMergeSeq map x2, filter x1 (memoizing)]
+     *
+     * @return the plan
+     */
+    SeqPlan explain();
+
+    /**
+     * Run the terminal operation on a copy of this pipeline where the map and filter functions of each stage are measured,
+     * and report the thread CPU time and allocated bytes per stage.<br>
+     * Measuring adds about a microsecond per function call, use for diagnosis only.
+     * <br>
+     * seq.profile(Seq::count)
+     *
+     * @param terminal the terminal operation
+     * @param <R>      the type of the result
+     * @return the result and the cost of each stage
+     */
+    <R> SeqProfile<R> profile(Function<? super Seq<T>, R> terminal);
+
     /**
      * Return a new sequence where all the current on-close functions will be merged with the close-handler and all handlers will be
      * called once the close function is called on the sequence.
@@ -249,14 +639,25 @@ public interface Seq<T> extends Stream<T>, Iterable<T> {
      */
     boolean equals(Seq<? extends T> seq);
 
+    /**
+     * Replace the realized lazy and merge nodes at the start of this sequence with elements packed into array chunks,
+     * traversing the result does not lock or call any functions for the packed elements and uses less memory
+     * per element. Nodes that are not realized yet and everything after them are kept as is. Nothing is realized.
+     * <br>
+     * Only the returned sequence is compacted, drop references to this sequence to free its nodes.
+     *
+     * @return the compacted sequence, or this sequence if nothing is realized
+     */
+    Seq<T> compact();
+
     /**
      * Force all map and filter operations on the sequence
      *
-     * @return the sequence
+     * @return the sequence compacted, see {@link #compact()}
      */
     default Seq<T> forceEager() {
         count();
-        return this;
+        return compact();
     }
 
     /**
@@ -274,7 +675,7 @@ public interface Seq<T> extends Stream<T>, Iterable<T> {
         List<Future<R>> futures = reduce(
                 new ArrayList<Future<R>>(),
                 (list, v) -> {
-                    list.add(exec.submit(() -> consumer.apply(v)));
+                    list.add(exec.submit(SeqEvents.parallelTask(() -> consumer.apply(v))));
                     return list;
                 });
 
@@ -2,19 +2,37 @@ package com.github.gerritjvv.lazyj;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import com.github.gerritjvv.lazyj.seq.AbstractSeq;
+import com.github.gerritjvv.lazyj.seq.ArraySeq;
+import com.github.gerritjvv.lazyj.seq.ConcurrentMergeQueue;
 import com.github.gerritjvv.lazyj.seq.Cons;
 import com.github.gerritjvv.lazyj.seq.LazySeq;
+import com.github.gerritjvv.lazyj.seq.MergeSortedIterator;
+import com.github.gerritjvv.lazyj.seq.RangeSeq;
+import com.github.gerritjvv.lazyj.vec.PersistentVector;
 
 /**
  * Utility support functions common to all sequences.
  */
 public class SeqUtil {
+    /**
+     * Default number of elements buffered by the concurrent sequence operations.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Default max number of elements reduced sequentially by the parallel terminal operations e.g groupBy and countBy.
+     */
+    public static final int DEFAULT_FOLD_CHUNK_SIZE = 4096;
+
     private static final Seq EMPTY_SEQ = Cons.create(null, null);
 
     /**
@@ -68,20 +86,40 @@ public class SeqUtil {
     }
 
     /**
-     * Return a sequence from the array starting at the array index i.
+     * Return a sequence from the array starting at the array index i.<br>
+     * The array is not copied, the sequence ends at the first null element and can be split by {@link Seq#fold}.
      * @param it the array
      * @param i the array index
      * @param <T> the type in the sequence
      * @return the new sequence
      */
     public static <T> Seq<T> seq(T[] it, int i) {
-        if (it == null)
+        if (it == null || i >= it.length)
             return SeqUtil.empty();
 
-        return LazySeq.create(
-                () -> i < it.length
-                        ? Cons.create(it[i], seq(it, i + 1))
-                        : empty());
+        return ArraySeq.create(null, it, i);
+    }
+
+    /**
+     * Return the sequence of numbers [start, end).<br>
+     * The numbers are not stored and the sequence can be split by {@link Seq#fold}.
+     * @param start the first number
+     * @param end the number after the last number
+     * @return the new sequence
+     */
+    public static Seq<Long> range(long start, long end) {
+        return new RangeSeq(null, start, end);
+    }
+
+    /**
+     * Realize the iterable into a persistent vector, use {@link PersistentVector#seq()} to traverse it as a sequence.<br>
+     * The vector is immutable and can be cached and shared between threads, the seq of a whole vector returns that vector.
+     * @param it the elements, none can be null
+     * @param <T> the type in the vector
+     * @return the new vector
+     */
+    public static <T> PersistentVector<T> vec(Iterable<? extends T> it) {
+        return PersistentVector.create(it);
     }
 
     /**
@@ -151,6 +189,100 @@ public class SeqUtil {
                 closeHandler);
     }
 
+    /**
+     * Lazily merge sequences that are each sorted by comparator into one sorted sequence.<br>
+     * A binary heap holds one buffered head per input, each element costs O(log k) where k is the number of inputs.<br>
+     * Elements that compare equal are returned in the order of the inputs.<br>
+     * The close handlers of all inputs are kept and called when the merged sequence is closed.
+     *
+     * @param comparator the order the inputs are sorted by
+     * @param seqs       the sorted sequences to merge
+     * @param <T>        the type in the sequence
+     * @return the merged sequence
+     */
+    public static <T> Seq<T> mergeSorted(Comparator<? super T> comparator, Seq<T>... seqs) {
+        if (seqs == null || seqs.length == 0)
+            return empty();
+
+        Runnable closeHandler = mergeOnClose(seqs);
+
+        return LazySeq.create(() -> seq(new MergeSortedIterator<>(comparator, seqs), closeHandler), closeHandler);
+    }
+
+    /**
+     * Same as {@link #mergeConcurrent(ExecutorService, int, Seq[])} with a queue capacity of {@link #DEFAULT_QUEUE_CAPACITY}.
+     */
+    public static <T> Seq<T> mergeConcurrent(ExecutorService exec, Seq<T>... seqs) {
+        return mergeConcurrent(exec, DEFAULT_QUEUE_CAPACITY, seqs);
+    }
+
+    /**
+     * Merge sequences concurrently in arrival order.<br>
+     * Each input is drained on its own task submitted to exec, into one shared bounded queue. Producers block when the queue is full.<br>
+     * The merged sequence ends when all inputs are exhausted, an error in any input is re-thrown by the merged sequence.<br>
+     * Closing the merged sequence stops the producers and calls the close handlers of all inputs.
+     * <p>
+     * Note that each input occupies a thread of exec while it is drained, infinite inputs need a thread each.
+     *
+     * @param exec     the executor that runs one task per input
+     * @param capacity the max number of elements buffered between the producers and the consumer
+     * @param seqs     the sequences to merge
+     * @param <T>      the type in the sequence
+     * @return the merged sequence
+     */
+    public static <T> Seq<T> mergeConcurrent(ExecutorService exec, int capacity, Seq<T>... seqs) {
+        if (seqs == null || seqs.length == 0)
+            return empty();
+
+        ConcurrentMergeQueue<T> queue = new ConcurrentMergeQueue<>(exec, capacity, seqs);
+        Runnable closeHandler = mergeOnClose(queue::close, mergeOnClose(seqs));
+
+        return seq(queue, closeHandler);
+    }
+
+    /**
+     * Implements the Stream onClose exception logic, a is called and then b even if a throws an exception.
+     * @param a Runnable
+     * @param b Runnable
+     * @return a new runnable that will call a and b
+     */
+    public static Runnable mergeOnClose(Runnable a, Runnable b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else if (a == b) {
+            return a;
+        } else {
+            return () ->
+            {
+                try {
+                    a.run();
+                } catch (Throwable e1) {
+                    try {
+                        b.run();
+                    } catch (Throwable e2) {
+                        try {
+                            e1.addSuppressed(e2);
+                        } catch (Throwable ignore) {
+                        }
+                    }
+                    throw e1;
+                }
+                b.run();
+            };
+        }
+    }
+
+    private static Runnable mergeOnClose(Seq<?>[] seqs) {
+        Runnable closeHandler = null;
+
+        for (Seq<?> seq : seqs)
+            closeHandler = mergeOnClose(closeHandler, AbstractSeq.closeHandlerOf(seq));
+
+        return closeHandler;
+    }
+
     private static Runnable asRunnableOrNull(Object obj) {
         if (obj instanceof Stream)
             return asRunnable((Stream) obj);
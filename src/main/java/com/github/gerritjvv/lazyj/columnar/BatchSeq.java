@@ -0,0 +1,247 @@
+package com.github.gerritjvv.lazyj.columnar;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+import com.github.gerritjvv.lazyj.seq.AbstractSeq;
+
+/**
+ * Lazy sequence of columnar {@link RecordBatch}es, the filter and map operations run a kernel over the column arrays
+ * of each batch instead of calling a function per object, and the aggregations combine one result per batch.<br/>
+ * Batches are realized as the sequence is consumed, batches without selected rows are skipped.
+ * Like the head of a {@link Seq}, a BatchSeq that is kept keeps its realized batches reachable, this includes the
+ * receiver of the instance aggregations while they run. The static aggregations over {@link #batches()} make a single
+ * pass over more batches than fit in memory.
+ * <p/>
+ * BatchSeq.from(events, schema, 4096).filterLong("ts", ts -> ts >= from).sumDouble("value")<br/>
+ * BatchSeq.sumDouble(BatchSeq.from(events, schema).filterLong("ts", ts -> ts >= from).batches(), "value")
+ */
+public final class BatchSeq implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private final Seq<RecordBatch> batches;
+
+    private BatchSeq(Seq<RecordBatch> batches) {
+        this.batches = batches;
+    }
+
+    /**
+     * @param batches a sequence of batches, e.g read from a columnar file
+     */
+    public static BatchSeq of(Seq<RecordBatch> batches) {
+        return new BatchSeq(batches);
+    }
+
+    public static <T> BatchSeq from(Seq<T> seq, Schema<T> schema) {
+        return from(seq, schema, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Lazily extract the columns of schema from each batchSize objects of seq, closing the BatchSeq closes seq.
+     */
+    public static <T> BatchSeq from(Seq<T> seq, Schema<T> schema, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be > 0 but was " + batchSize);
+
+        //the close handler must not reference seq, it would keep the source rows reachable
+        return new BatchSeq(SeqUtil.seq(new RowsToBatches<>(seq.iterator(), schema, batchSize), AbstractSeq.closeHandlerOf(seq)));
+    }
+
+    /**
+     * @return the batches, use to run any other sequence operation over whole batches
+     */
+    public Seq<RecordBatch> batches() {
+        return batches;
+    }
+
+    /**
+     * Lazily turn the selected rows back into objects.
+     */
+    public <T> Seq<T> toSeq(RowReader<T> reader) {
+        return batches.mapcat(batch -> SeqUtil.range(0, batch.size()).map(i -> reader.read(batch, batch.row(i.intValue()))));
+    }
+
+    public BatchSeq filterLong(String column, LongPredicate predicate) {
+        return filtered(batches.map(batch -> batch.filterLong(column, predicate)));
+    }
+
+    public BatchSeq filterDouble(String column, DoublePredicate predicate) {
+        return filtered(batches.map(batch -> batch.filterDouble(column, predicate)));
+    }
+
+    public <V> BatchSeq filterObject(String column, Predicate<? super V> predicate) {
+        return filtered(batches.map(batch -> batch.filterObject(column, predicate)));
+    }
+
+    /**
+     * @see RecordBatch#mapLong(String, String, LongUnaryOperator)
+     */
+    public BatchSeq mapLong(String in, String out, LongUnaryOperator fn) {
+        return new BatchSeq(batches.map(batch -> batch.mapLong(in, out, fn)));
+    }
+
+    /**
+     * @see RecordBatch#mapDouble(String, String, DoubleUnaryOperator)
+     */
+    public BatchSeq mapDouble(String in, String out, DoubleUnaryOperator fn) {
+        return new BatchSeq(batches.map(batch -> batch.mapDouble(in, out, fn)));
+    }
+
+    /**
+     * @return the number of selected rows
+     */
+    public long count() {
+        return count(batches);
+    }
+
+    public long sumLong(String column) {
+        return sumLong(batches, column);
+    }
+
+    public double sumDouble(String column) {
+        return sumDouble(batches, column);
+    }
+
+    public OptionalLong minLong(String column) {
+        return minLong(batches, column);
+    }
+
+    public OptionalLong maxLong(String column) {
+        return maxLong(batches, column);
+    }
+
+    @Override
+    public void close() {
+        batches.close();
+    }
+
+    /*
+     * The static aggregations drop the batches argument once they have its iterator, a loop over only a few thousand
+     * batches stays interpreted and an interpreted frame keeps its locals reachable.
+     */
+
+    public static long count(Seq<RecordBatch> batches) {
+        Iterator<RecordBatch> it = batches.iterator();
+        batches = null;
+
+        long count = 0;
+
+        while (it.hasNext())
+            count += it.next().size();
+
+        return count;
+    }
+
+    public static long sumLong(Seq<RecordBatch> batches, String column) {
+        Iterator<RecordBatch> it = batches.iterator();
+        batches = null;
+
+        long sum = 0;
+
+        while (it.hasNext())
+            sum += it.next().sumLong(column);
+
+        return sum;
+    }
+
+    public static double sumDouble(Seq<RecordBatch> batches, String column) {
+        Iterator<RecordBatch> it = batches.iterator();
+        batches = null;
+
+        double sum = 0;
+
+        while (it.hasNext())
+            sum += it.next().sumDouble(column);
+
+        return sum;
+    }
+
+    public static OptionalLong minLong(Seq<RecordBatch> batches, String column) {
+        Iterator<RecordBatch> it = batches.iterator();
+        batches = null;
+
+        long min = Long.MAX_VALUE;
+        boolean empty = true;
+
+        while (it.hasNext()) {
+            RecordBatch batch = it.next();
+
+            if (batch.size() == 0)
+                continue;
+
+            min = Math.min(min, batch.minLong(column));
+            empty = false;
+        }
+
+        return empty ? OptionalLong.empty() : OptionalLong.of(min);
+    }
+
+    public static OptionalLong maxLong(Seq<RecordBatch> batches, String column) {
+        Iterator<RecordBatch> it = batches.iterator();
+        batches = null;
+
+        long max = Long.MIN_VALUE;
+        boolean empty = true;
+
+        while (it.hasNext()) {
+            RecordBatch batch = it.next();
+
+            if (batch.size() == 0)
+                continue;
+
+            max = Math.max(max, batch.maxLong(column));
+            empty = false;
+        }
+
+        return empty ? OptionalLong.empty() : OptionalLong.of(max);
+    }
+
+    private static BatchSeq filtered(Seq<RecordBatch> batches) {
+        return new BatchSeq(batches.filter(batch -> batch.size() > 0));
+    }
+
+    /**
+     * Reads up to batchSize objects per batch, the row buffer is reused since only the batches are kept.
+     */
+    private static final class RowsToBatches<T> implements Iterator<RecordBatch> {
+        private final Iterator<T> it;
+        private final Schema<T> schema;
+        private final Object[] rows;
+
+        RowsToBatches(Iterator<T> it, Schema<T> schema, int batchSize) {
+            this.it = it;
+            this.schema = schema;
+            this.rows = new Object[batchSize];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public RecordBatch next() {
+            if (!it.hasNext())
+                throw new NoSuchElementException();
+
+            int n = 0;
+            while (n < rows.length && it.hasNext())
+                rows[n++] = it.next();
+
+            RecordBatch batch = schema.batch(rows, n);
+            Arrays.fill(rows, 0, n, null);
+
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.gerritjvv.lazyj.columnar;
+
+/**
+ * The storage of a column in a {@link RecordBatch}, long and double columns are primitive arrays.
+ */
+public enum ColumnType {
+    LONG,
+    DOUBLE,
+    OBJECT
+}
@@ -0,0 +1,355 @@
+package com.github.gerritjvv.lazyj.columnar;
+
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * A batch of rows stored as one array per column, long and double columns are primitive arrays.<br/>
+ * Filters do not copy the columns, they return a batch with a selection vector of the physical rows that passed,
+ * the kernels below loop over the selected rows of a column array.
+ * <p/>
+ * Immutable, maps add a column array and share the others, batches can be shared between threads.
+ */
+public final class RecordBatch {
+
+    private final String[] names;
+    private final ColumnType[] types;
+    //long[], double[] or Object[] by type
+    private final Object[] data;
+
+    private final int rowCount;
+
+    //the first size entries are the selected physical rows, null when all rows are selected
+    private final int[] selection;
+    private final int size;
+
+    RecordBatch(String[] names, ColumnType[] types, Object[] data, int rowCount, int[] selection, int size) {
+        this.names = names;
+        this.types = types;
+        this.data = data;
+        this.rowCount = rowCount;
+        this.selection = selection;
+        this.size = size;
+    }
+
+    public static Builder builder(int rowCount) {
+        return new Builder(rowCount);
+    }
+
+    /**
+     * @return the number of selected rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of rows stored, selected or not
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @param i the index of a selected row, 0 <= i < size()
+     * @return the physical row index
+     */
+    public int row(int i) {
+        return selection == null ? i : selection[i];
+    }
+
+    /**
+     * @return the index of the column for the get methods
+     */
+    public int column(String name) {
+        int c = indexOf(name);
+
+        if (c < 0)
+            throw new IllegalArgumentException("no column " + name + " in " + Arrays.toString(names));
+
+        return c;
+    }
+
+    public ColumnType type(String name) {
+        return types[column(name)];
+    }
+
+    public long getLong(int column, int row) {
+        return ((long[]) data[column])[row];
+    }
+
+    public double getDouble(int column, int row) {
+        return ((double[]) data[column])[row];
+    }
+
+    public Object getObject(int column, int row) {
+        return ((Object[]) data[column])[row];
+    }
+
+    public RecordBatch filterLong(String column, LongPredicate predicate) {
+        long[] values = longs(column);
+        int[] selected = new int[size];
+        int n = 0;
+
+        if (selection == null) {
+            for (int i = 0; i < size; i++)
+                if (predicate.test(values[i]))
+                    selected[n++] = i;
+        } else {
+            for (int i = 0; i < size; i++) {
+                int row = selection[i];
+                if (predicate.test(values[row]))
+                    selected[n++] = row;
+            }
+        }
+
+        return withSelection(selected, n);
+    }
+
+    public RecordBatch filterDouble(String column, DoublePredicate predicate) {
+        double[] values = doubles(column);
+        int[] selected = new int[size];
+        int n = 0;
+
+        if (selection == null) {
+            for (int i = 0; i < size; i++)
+                if (predicate.test(values[i]))
+                    selected[n++] = i;
+        } else {
+            for (int i = 0; i < size; i++) {
+                int row = selection[i];
+                if (predicate.test(values[row]))
+                    selected[n++] = row;
+            }
+        }
+
+        return withSelection(selected, n);
+    }
+
+    public <V> RecordBatch filterObject(String column, Predicate<? super V> predicate) {
+        Object[] values = objects(column);
+        int[] selected = new int[size];
+        int n = 0;
+
+        for (int i = 0; i < size; i++) {
+            int row = row(i);
+            if (predicate.test((V) values[row]))
+                selected[n++] = row;
+        }
+
+        return withSelection(selected, n);
+    }
+
+    /**
+     * Compute the long column out from the long column in for the selected rows, out is added or replaced.
+     */
+    public RecordBatch mapLong(String in, String out, LongUnaryOperator fn) {
+        long[] values = longs(in);
+        long[] result = new long[rowCount];
+
+        if (selection == null) {
+            for (int i = 0; i < size; i++)
+                result[i] = fn.applyAsLong(values[i]);
+        } else {
+            for (int i = 0; i < size; i++) {
+                int row = selection[i];
+                result[row] = fn.applyAsLong(values[row]);
+            }
+        }
+
+        return withColumn(out, ColumnType.LONG, result);
+    }
+
+    /**
+     * Compute the double column out from the double column in for the selected rows, out is added or replaced.
+     */
+    public RecordBatch mapDouble(String in, String out, DoubleUnaryOperator fn) {
+        double[] values = doubles(in);
+        double[] result = new double[rowCount];
+
+        if (selection == null) {
+            for (int i = 0; i < size; i++)
+                result[i] = fn.applyAsDouble(values[i]);
+        } else {
+            for (int i = 0; i < size; i++) {
+                int row = selection[i];
+                result[row] = fn.applyAsDouble(values[row]);
+            }
+        }
+
+        return withColumn(out, ColumnType.DOUBLE, result);
+    }
+
+    public long sumLong(String column) {
+        long[] values = longs(column);
+        long sum = 0;
+
+        if (selection == null) {
+            for (int i = 0; i < size; i++)
+                sum += values[i];
+        } else {
+            for (int i = 0; i < size; i++)
+                sum += values[selection[i]];
+        }
+
+        return sum;
+    }
+
+    public double sumDouble(String column) {
+        double[] values = doubles(column);
+        double sum = 0;
+
+        if (selection == null) {
+            for (int i = 0; i < size; i++)
+                sum += values[i];
+        } else {
+            for (int i = 0; i < size; i++)
+                sum += values[selection[i]];
+        }
+
+        return sum;
+    }
+
+    /**
+     * @return the min of the selected rows, Long.MAX_VALUE if no rows are selected
+     */
+    public long minLong(String column) {
+        long[] values = longs(column);
+        long min = Long.MAX_VALUE;
+
+        for (int i = 0; i < size; i++)
+            min = Math.min(min, values[row(i)]);
+
+        return min;
+    }
+
+    /**
+     * @return the max of the selected rows, Long.MIN_VALUE if no rows are selected
+     */
+    public long maxLong(String column) {
+        long[] values = longs(column);
+        long max = Long.MIN_VALUE;
+
+        for (int i = 0; i < size; i++)
+            max = Math.max(max, values[row(i)]);
+
+        return max;
+    }
+
+    private RecordBatch withSelection(int[] selected, int n) {
+        return new RecordBatch(names, types, data, rowCount, selected, n);
+    }
+
+    private RecordBatch withColumn(String name, ColumnType type, Object values) {
+        int c = indexOf(name);
+
+        if (c < 0) {
+            c = names.length;
+
+            String[] newNames = Arrays.copyOf(names, c + 1);
+            ColumnType[] newTypes = Arrays.copyOf(types, c + 1);
+            Object[] newData = Arrays.copyOf(data, c + 1);
+
+            newNames[c] = name;
+            newTypes[c] = type;
+            newData[c] = values;
+
+            return new RecordBatch(newNames, newTypes, newData, rowCount, selection, size);
+        }
+
+        ColumnType[] newTypes = types.clone();
+        Object[] newData = data.clone();
+
+        newTypes[c] = type;
+        newData[c] = values;
+
+        return new RecordBatch(names, newTypes, newData, rowCount, selection, size);
+    }
+
+    private int indexOf(String name) {
+        for (int c = 0; c < names.length; c++)
+            if (names[c].equals(name))
+                return c;
+
+        return -1;
+    }
+
+    private long[] longs(String name) {
+        return (long[]) columnData(name, ColumnType.LONG);
+    }
+
+    private double[] doubles(String name) {
+        return (double[]) columnData(name, ColumnType.DOUBLE);
+    }
+
+    private Object[] objects(String name) {
+        return (Object[]) columnData(name, ColumnType.OBJECT);
+    }
+
+    private Object columnData(String name, ColumnType type) {
+        int c = column(name);
+
+        if (types[c] != type)
+            throw new IllegalArgumentException("column " + name + " is " + types[c] + " not " + type);
+
+        return data[c];
+    }
+
+    /**
+     * Builds a batch from column arrays that already exist, the arrays are not copied and must not be changed after.
+     */
+    public static final class Builder {
+        private final int rowCount;
+
+        private String[] names = new String[0];
+        private ColumnType[] types = new ColumnType[0];
+        private Object[] data = new Object[0];
+
+        private Builder(int rowCount) {
+            if (rowCount < 0)
+                throw new IllegalArgumentException("rowCount must be >= 0 but was " + rowCount);
+
+            this.rowCount = rowCount;
+        }
+
+        public Builder longColumn(String name, long[] values) {
+            return add(name, ColumnType.LONG, values, values.length);
+        }
+
+        public Builder doubleColumn(String name, double[] values) {
+            return add(name, ColumnType.DOUBLE, values, values.length);
+        }
+
+        public Builder objectColumn(String name, Object[] values) {
+            return add(name, ColumnType.OBJECT, values, values.length);
+        }
+
+        public RecordBatch build() {
+            return new RecordBatch(names, types, data, rowCount, null, rowCount);
+        }
+
+        private Builder add(String name, ColumnType type, Object values, int length) {
+            if (length < rowCount)
+                throw new IllegalArgumentException("column " + name + " must have at least " + rowCount + " values but has " + length);
+
+            if (Arrays.asList(names).contains(name))
+                throw new IllegalArgumentException("duplicate column " + name);
+
+            int c = names.length;
+
+            names = Arrays.copyOf(names, c + 1);
+            types = Arrays.copyOf(types, c + 1);
+            data = Arrays.copyOf(data, c + 1);
+
+            names[c] = name;
+            types[c] = type;
+            data[c] = values;
+
+            return this;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.gerritjvv.lazyj.columnar;
+
+/**
+ * Creates an object from a row of a batch, used to turn a {@link BatchSeq} back into a sequence of objects.
+ */
+@FunctionalInterface
+public interface RowReader<T> {
+
+    /**
+     * @param batch the batch
+     * @param row   the physical row index, read with e.g. {@link RecordBatch#getLong(int, int)}
+     * @return the object for the row, not null
+     */
+    T read(RecordBatch batch, int row);
+}
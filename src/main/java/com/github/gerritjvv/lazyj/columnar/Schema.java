@@ -0,0 +1,114 @@
+package com.github.gerritjvv.lazyj.columnar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * The columns extracted from each object when a sequence is turned into a {@link BatchSeq}.
+ * <p/>
+ * Schema.&lt;Event&gt;builder().longColumn("ts", Event::ts).doubleColumn("value", Event::value).build()
+ */
+public final class Schema<T> {
+
+    private final String[] names;
+    private final ColumnType[] types;
+    //ToLongFunction, ToDoubleFunction or Function by type
+    private final Object[] extractors;
+
+    private Schema(String[] names, ColumnType[] types, Object[] extractors) {
+        this.names = names;
+        this.types = types;
+        this.extractors = extractors;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @return a batch with the values of rows[0, n) extracted into columns
+     */
+    RecordBatch batch(Object[] rows, int n) {
+        Object[] data = new Object[names.length];
+
+        for (int c = 0; c < names.length; c++) {
+            switch (types[c]) {
+                case LONG: {
+                    ToLongFunction<? super T> fn = (ToLongFunction<? super T>) extractors[c];
+                    long[] values = new long[n];
+
+                    for (int i = 0; i < n; i++)
+                        values[i] = fn.applyAsLong((T) rows[i]);
+
+                    data[c] = values;
+                    break;
+                }
+                case DOUBLE: {
+                    ToDoubleFunction<? super T> fn = (ToDoubleFunction<? super T>) extractors[c];
+                    double[] values = new double[n];
+
+                    for (int i = 0; i < n; i++)
+                        values[i] = fn.applyAsDouble((T) rows[i]);
+
+                    data[c] = values;
+                    break;
+                }
+                default: {
+                    Function<? super T, ?> fn = (Function<? super T, ?>) extractors[c];
+                    Object[] values = new Object[n];
+
+                    for (int i = 0; i < n; i++)
+                        values[i] = fn.apply((T) rows[i]);
+
+                    data[c] = values;
+                }
+            }
+        }
+
+        return new RecordBatch(names, types, data, n, null, n);
+    }
+
+    public static final class Builder<T> {
+        private final List<String> names = new ArrayList<>();
+        private final List<ColumnType> types = new ArrayList<>();
+        private final List<Object> extractors = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<T> longColumn(String name, ToLongFunction<? super T> fn) {
+            return add(name, ColumnType.LONG, fn);
+        }
+
+        public Builder<T> doubleColumn(String name, ToDoubleFunction<? super T> fn) {
+            return add(name, ColumnType.DOUBLE, fn);
+        }
+
+        public Builder<T> objectColumn(String name, Function<? super T, ?> fn) {
+            return add(name, ColumnType.OBJECT, fn);
+        }
+
+        public Schema<T> build() {
+            if (names.isEmpty())
+                throw new IllegalArgumentException("a schema must have at least one column");
+
+            return new Schema<>(
+                    names.toArray(new String[0]),
+                    types.toArray(new ColumnType[0]),
+                    extractors.toArray());
+        }
+
+        private Builder<T> add(String name, ColumnType type, Object fn) {
+            if (names.contains(name))
+                throw new IllegalArgumentException("duplicate column " + name);
+
+            names.add(name);
+            types.add(type);
+            extractors.add(fn);
+            return this;
+        }
+    }
+}
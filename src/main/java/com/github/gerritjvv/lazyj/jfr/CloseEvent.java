@@ -0,0 +1,24 @@
+package com.github.gerritjvv.lazyj.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The execution of the close handler chain of a sequence.
+ */
+@Name("com.github.gerritjvv.lazyj.Close")
+@Label("Seq Close")
+@Category("lazyj")
+@Description("Execution of a sequence close handler, including the handlers merged into it")
+@Threshold("1 ms")
+class CloseEvent extends jdk.jfr.Event {
+
+    @Label("Handler Class")
+    String handlerClass;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,24 @@
+package com.github.gerritjvv.lazyj.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The computation of a Delay value, only the first deref computes.
+ */
+@Name("com.github.gerritjvv.lazyj.DelayDeref")
+@Label("Delay Deref")
+@Category("lazyj")
+@Description("Computation of a Delay value")
+@Threshold("1 ms")
+class DelayDerefEvent extends jdk.jfr.Event {
+
+    @Label("Function Class")
+    String fnClass;
+
+    @Label("Failed")
+    boolean failed;
+}
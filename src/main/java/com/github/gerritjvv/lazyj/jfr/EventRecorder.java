@@ -0,0 +1,19 @@
+package com.github.gerritjvv.lazyj.jfr;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * The calls of {@link SeqEvents} that record an event, implemented by JfrEvents which is compiled for java 11 from
+ * src/main/java11 and only loaded by name.
+ */
+interface EventRecorder {
+
+    <T> T lazySeqEval(Supplier<T> fn);
+
+    void close(Runnable handler);
+
+    <R> Callable<R> parallelTask(Callable<R> task);
+
+    <T> T delayDeref(Callable<T> fn) throws Exception;
+}
@@ -0,0 +1,120 @@
+package com.github.gerritjvv.lazyj.jfr;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The JFR side of {@link SeqEvents}, compiled for java 11 and only loaded when the jdk.jfr module is available.<br/>
+ * The static event instances are used to check if an event type is enabled, the check is a field read in the JFR
+ * event handler, events are only created when a recording has them enabled.
+ */
+final class JfrEvents implements EventRecorder {
+
+    private static final LazySeqEvalEvent EVAL = new LazySeqEvalEvent();
+    private static final CloseEvent CLOSE = new CloseEvent();
+    private static final ParallelSubmitEvent SUBMIT = new ParallelSubmitEvent();
+    private static final ParallelTaskEvent TASK = new ParallelTaskEvent();
+    private static final DelayDerefEvent DEREF = new DelayDerefEvent();
+
+    private static final AtomicLong TASK_IDS = new AtomicLong();
+
+    JfrEvents() {
+    }
+
+    @Override
+    public <T> T lazySeqEval(Supplier<T> fn) {
+        if (!EVAL.isEnabled())
+            return fn.get();
+
+        LazySeqEvalEvent event = new LazySeqEvalEvent();
+        event.begin();
+
+        try {
+            return fn.get();
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.supplierClass = fn.getClass().getName();
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void close(Runnable handler) {
+        if (!CLOSE.isEnabled()) {
+            handler.run();
+            return;
+        }
+
+        CloseEvent event = new CloseEvent();
+        event.begin();
+        event.failed = true;
+
+        try {
+            handler.run();
+            event.failed = false;
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.handlerClass = handler.getClass().getName();
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public <R> Callable<R> parallelTask(Callable<R> task) {
+        if (!SUBMIT.isEnabled() && !TASK.isEnabled())
+            return task;
+
+        long taskId = TASK_IDS.incrementAndGet();
+        long submitted = System.nanoTime();
+
+        ParallelSubmitEvent submit = new ParallelSubmitEvent();
+        submit.taskId = taskId;
+        submit.commit();
+
+        return () -> {
+            ParallelTaskEvent event = new ParallelTaskEvent();
+            event.begin();
+            event.taskId = taskId;
+            event.queued = System.nanoTime() - submitted;
+            event.failed = true;
+
+            try {
+                R v = task.call();
+                event.failed = false;
+                return v;
+            } finally {
+                event.commit();
+            }
+        };
+    }
+
+    @Override
+    public <T> T delayDeref(Callable<T> fn) throws Exception {
+        if (!DEREF.isEnabled())
+            return fn.call();
+
+        DelayDerefEvent event = new DelayDerefEvent();
+        event.begin();
+        event.failed = true;
+
+        try {
+            T v = fn.call();
+            event.failed = false;
+            return v;
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.fnClass = fn.getClass().getName();
+                event.commit();
+            }
+        }
+    }
+}
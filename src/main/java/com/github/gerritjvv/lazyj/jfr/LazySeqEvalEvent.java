@@ -0,0 +1,21 @@
+package com.github.gerritjvv.lazyj.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A LazySeq supplier evaluation that took longer than the threshold.
+ */
+@Name("com.github.gerritjvv.lazyj.LazySeqEval")
+@Label("LazySeq Eval")
+@Category("lazyj")
+@Description("Evaluation of a LazySeq supplier")
+@Threshold("10 ms")
+class LazySeqEvalEvent extends jdk.jfr.Event {
+
+    @Label("Supplier Class")
+    String supplierClass;
+}
@@ -0,0 +1,21 @@
+package com.github.gerritjvv.lazyj.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A doParallel task submitted to its executor.
+ */
+@Name("com.github.gerritjvv.lazyj.ParallelSubmit")
+@Label("Parallel Task Submit")
+@Category("lazyj")
+@Description("A doParallel task submitted to the executor")
+@StackTrace(false)
+class ParallelSubmitEvent extends jdk.jfr.Event {
+
+    @Label("Task Id")
+    long taskId;
+}
@@ -0,0 +1,29 @@
+package com.github.gerritjvv.lazyj.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The execution of a doParallel task, from start to complete.
+ */
+@Name("com.github.gerritjvv.lazyj.ParallelTask")
+@Label("Parallel Task")
+@Category("lazyj")
+@Description("Execution of a doParallel task in the executor")
+@StackTrace(false)
+class ParallelTaskEvent extends jdk.jfr.Event {
+
+    @Label("Task Id")
+    long taskId;
+
+    @Label("Queued")
+    @Timespan(Timespan.NANOSECONDS)
+    long queued;
+
+    @Label("Failed")
+    boolean failed;
+}
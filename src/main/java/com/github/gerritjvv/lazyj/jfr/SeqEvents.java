@@ -0,0 +1,67 @@
+package com.github.gerritjvv.lazyj.jfr;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * JDK Flight Recorder events for lazy sequences, shown in JMC under the lazyj category:
+ * <ul>
+ *     <li>LazySeqEval: LazySeq supplier evaluations longer than 10 ms</li>
+ *     <li>Close: close handler chains longer than 1 ms</li>
+ *     <li>ParallelSubmit and ParallelTask: doParallel task submit, and the task execution with its queue time</li>
+ *     <li>DelayDeref: Delay computations longer than 1 ms</li>
+ * </ul>
+ * The thresholds can be changed per event name in the recording settings, e.g in a copy of default.jfc passed with
+ * -XX:StartFlightRecording:settings=path/to/settings.jfc.
+ * <p/>
+ * The events are recorded on java 11 or later. When jdk.jfr is not available, or no recording has the event enabled,
+ * each method only calls through.
+ */
+public final class SeqEvents {
+
+    private static final EventRecorder RECORDER = recorder();
+
+    private SeqEvents() {
+    }
+
+    /**
+     * @return true if the JFR events can be recorded in this JVM
+     */
+    public static boolean isAvailable() {
+        return RECORDER != null;
+    }
+
+    public static <T> T lazySeqEval(Supplier<T> fn) {
+        return RECORDER != null ? RECORDER.lazySeqEval(fn) : fn.get();
+    }
+
+    public static void close(Runnable handler) {
+        if (RECORDER != null)
+            RECORDER.close(handler);
+        else
+            handler.run();
+    }
+
+    /**
+     * Called before the task is submitted.
+     *
+     * @return the task, or a task that records its execution
+     */
+    public static <R> Callable<R> parallelTask(Callable<R> task) {
+        return RECORDER != null ? RECORDER.parallelTask(task) : task;
+    }
+
+    public static <T> T delayDeref(Callable<T> fn) throws Exception {
+        return RECORDER != null ? RECORDER.delayDeref(fn) : fn.call();
+    }
+
+    private static EventRecorder recorder() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (EventRecorder) Class.forName("com.github.gerritjvv.lazyj.jfr.JfrEvents").getDeclaredConstructor().newInstance();
+        } catch (Throwable t) {
+            //java 8, where JfrEvents is a newer class version, or a JVM where the jdk.jfr module is not resolved
+            return null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.gerritjvv.lazyj.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free in memory sink, counters are {@link LongAdder}s and latencies are kept in a {@link LatencyHistogram} per stage.
+ * <p>
+ * <pre>
+ *     InMemoryMetricsSink sink = new InMemoryMetricsSink();
+ *     seq.filter(...).instrument("parse", sink).toList();
+ *     sink.stage("parse").filteredCount();
+ * </pre>
+ */
+public class InMemoryMetricsSink implements MetricsSink {
+
+    private final Map<String, StageMetrics> stages = new ConcurrentHashMap<>();
+
+    @Override
+    public StageMetrics recorder(String stage) {
+        return stages.computeIfAbsent(stage, k -> new StageMetrics());
+    }
+
+    /**
+     * @return the metrics of the stage or null if no stage with the name was instrumented
+     */
+    public StageMetrics stage(String stage) {
+        return stages.get(stage);
+    }
+
+    /**
+     * @return read only view of all stages by name
+     */
+    public Map<String, StageMetrics> stages() {
+        return Collections.unmodifiableMap(stages);
+    }
+
+    @Override
+    public String toString() {
+        return stages.toString();
+    }
+
+    /**
+     * The metrics of one stage, updated concurrently by the threads that realize the stage.
+     */
+    public static class StageMetrics implements Recorder {
+        private final LongAdder produced = new LongAdder();
+        private final LongAdder filtered = new LongAdder();
+        private final LongAdder closed = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        @Override
+        public void produced() {
+            produced.increment();
+        }
+
+        @Override
+        public void filtered(long n) {
+            filtered.add(n);
+        }
+
+        @Override
+        public void realized(long nanos) {
+            latency.record(nanos);
+        }
+
+        @Override
+        public void closed() {
+            closed.increment();
+        }
+
+        public long producedCount() {
+            return produced.sum();
+        }
+
+        public long filteredCount() {
+            return filtered.sum();
+        }
+
+        public long closedCount() {
+            return closed.sum();
+        }
+
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return "{produced=" + producedCount() + ", filtered=" + filteredCount() + ", closed=" + closedCount() + ", latency={" + latency + "}}";
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.gerritjvv.lazyj.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free log linear histogram of nanosecond latencies, in the style of HdrHistogram.<br>
+ * Values below 16 have their own bucket, larger values are bucketed by power of two with 8 linear sub buckets,
+ * so that a recorded value is off by at most 12.5%. The histogram uses a fixed 488 counters for the whole long range.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR = 16;
+    private static final int LINEAR_BITS = 4;
+
+    //positive longs have at most 63 significant bits
+    private static final int BUCKETS = LINEAR + (63 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param nanos the latency, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+
+        counts.incrementAndGet(index(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * @param q the quantile 0 <= q <= 1
+     * @return the highest value in the bucket that holds the quantile, at most {@link #max()}
+     */
+    public long percentile(double q) {
+        if (q < 0 || q > 1)
+            throw new IllegalArgumentException("q must be between 0 and 1 but was " + q);
+
+        long n = count.sum();
+        if (n == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(q * n));
+        long cumulative = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts.get(i);
+
+            if (cumulative >= target)
+                return Math.min(highestValue(i), max());
+        }
+
+        return max();
+    }
+
+    static int index(long v) {
+        if (v < LINEAR)
+            return (int) v;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return LINEAR + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub;
+    }
+
+    static long highestValue(int index) {
+        if (index < LINEAR)
+            return index;
+
+        int exponent = (index - LINEAR) / SUB_BUCKETS + LINEAR_BITS;
+        int sub = (index - LINEAR) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+
+        long lowest = ((long) (SUB_BUCKETS + sub)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count() + ", mean=" + (long) mean() + ", p50=" + percentile(0.5) + ", p99=" + percentile(0.99) + ", max=" + max();
+    }
+}
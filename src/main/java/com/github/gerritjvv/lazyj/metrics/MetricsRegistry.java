@@ -0,0 +1,34 @@
+package com.github.gerritjvv.lazyj.metrics;
+
+/**
+ * Global opt-in registry for the sink used by {@link com.github.gerritjvv.lazyj.Seq#instrument(String)}.<br>
+ * No sink is registered by default, in which case instrument(name) returns the sequence unchanged and costs nothing.
+ */
+public final class MetricsRegistry {
+
+    private static volatile MetricsSink sink;
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * @param sink the sink that stages instrumented from now on record to
+     */
+    public static void register(MetricsSink sink) {
+        MetricsRegistry.sink = sink;
+    }
+
+    /**
+     * Stop instrumenting new stages, stages that are already instrumented keep recording to the old sink.
+     */
+    public static void unregister() {
+        sink = null;
+    }
+
+    /**
+     * @return the registered sink or null
+     */
+    public static MetricsSink sink() {
+        return sink;
+    }
+}
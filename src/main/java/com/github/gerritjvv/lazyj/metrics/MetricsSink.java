@@ -0,0 +1,44 @@
+package com.github.gerritjvv.lazyj.metrics;
+
+/**
+ * SPI for the metrics of instrumented sequence stages, see {@link com.github.gerritjvv.lazyj.Seq#instrument(String, MetricsSink)}.<br>
+ * A sink hands out one recorder per stage name, the recorder is called for every element so it must be cheap and thread safe.
+ */
+public interface MetricsSink {
+
+    /**
+     * @param stage the stage name
+     * @return the recorder for the stage, the same recorder may be returned for the same name
+     */
+    Recorder recorder(String stage);
+
+    /**
+     * Records the events of one stage.
+     */
+    interface Recorder {
+
+        /**
+         * An element was returned by the stage.
+         */
+        void produced();
+
+        /**
+         * Elements were rejected by the filters of the stage.
+         *
+         * @param n the number of elements
+         */
+        void filtered(long n);
+
+        /**
+         * An element was realized, or the end of the sequence was reached.
+         *
+         * @param nanos the time taken to realize it, including the upstream stages
+         */
+        void realized(long nanos);
+
+        /**
+         * The stage was closed.
+         */
+        void closed();
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.gerritjvv.lazyj.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The stages of a sequence pipeline as returned by {@link com.github.gerritjvv.lazyj.Seq#explain()}, ordered from
+ * the source to the last stage.<br>
+ * Each stage is one seq node, a node that merged several operations shows them all e.g "map x2, filter x3".
+ * The plan stops at a lazy boundary, an unrealized LazySeq, because its upstream is only known once realized.
+ */
+public class SeqPlan {
+
+    private final List<Stage> stages;
+
+    private SeqPlan(List<Stage> stages) {
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    public List<Stage> stages() {
+        return stages;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buff = new StringBuilder();
+
+        for (int i = 0; i < stages.size(); i++) {
+            if (i > 0)
+                buff.append('\n');
+
+            buff.append(i).append(": ").append(stages.get(i));
+        }
+
+        return buff.toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Stages are added from the last stage to the source, the order in which the nodes reference each other.
+     */
+    public static class Builder {
+        private final List<Stage> stages = new ArrayList<>();
+
+        public Builder add(String node, String operation, boolean memoizing, boolean lazyBoundary) {
+            stages.add(new Stage(node, operation, memoizing, lazyBoundary));
+            return this;
+        }
+
+        public int size() {
+            return stages.size();
+        }
+
+        public SeqPlan build() {
+            List<Stage> list = new ArrayList<>(stages);
+            Collections.reverse(list);
+            return new SeqPlan(list);
+        }
+    }
+
+    public static class Stage {
+        private final String node;
+        private final String operation;
+        private final boolean memoizing;
+        private final boolean lazyBoundary;
+
+        Stage(String node, String operation, boolean memoizing, boolean lazyBoundary) {
+            this.node = node;
+            this.operation = operation;
+            this.memoizing = memoizing;
+            this.lazyBoundary = lazyBoundary;
+        }
+
+        /**
+         * @return the seq class name
+         */
+        public String node() {
+            return node;
+        }
+
+        /**
+         * @return the operations of the node e.g "map x2", "take 10", "range [0, 100)"
+         */
+        public String operation() {
+            return operation;
+        }
+
+        /**
+         * @return true if the node caches its realized element so that it is computed only once
+         */
+        public boolean isMemoizing() {
+            return memoizing;
+        }
+
+        /**
+         * @return true if the node is not realized yet and its upstream is unknown
+         */
+        public boolean isLazyBoundary() {
+            return lazyBoundary;
+        }
+
+        @Override
+        public String toString() {
+            return node + " " + operation + (memoizing ? " (memoizing)" : "") + (lazyBoundary ? " (lazy boundary)" : "");
+        }
+    }
+}
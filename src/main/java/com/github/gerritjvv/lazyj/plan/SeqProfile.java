@@ -0,0 +1,108 @@
+package com.github.gerritjvv.lazyj.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a terminal operation run with {@link com.github.gerritjvv.lazyj.Seq#profile}, and the CPU time and
+ * allocation of each stage from the source to the last stage.<br>
+ * The source is everything that is not a measured map or filter function: the source seq, lazy suppliers,
+ * node creation and the terminal operation itself, it is the total cost on the calling thread minus the stages.
+ */
+public class SeqProfile<R> {
+
+    private final R result;
+    private final long totalCpuNanos;
+    private final long totalAllocatedBytes;
+    private final List<Cost> stages;
+
+    SeqProfile(R result, String source, long totalCpuNanos, long totalAllocatedBytes, List<SeqProfiler.StageCost> stageCosts) {
+        this.result = result;
+        this.totalCpuNanos = totalCpuNanos;
+        this.totalAllocatedBytes = totalAllocatedBytes;
+
+        List<Cost> list = new ArrayList<>(stageCosts.size() + 1);
+
+        long cpu = 0;
+        long alloc = 0;
+
+        for (SeqProfiler.StageCost stage : stageCosts) {
+            list.add(new Cost(stage.description(), stage.calls(), stage.cpuNanos(), stage.allocatedBytes()));
+            cpu += stage.cpuNanos();
+            alloc += stage.allocatedBytes();
+        }
+
+        list.add(0, new Cost(source, 0, Math.max(0, totalCpuNanos - cpu), Math.max(0, totalAllocatedBytes - alloc)));
+
+        this.stages = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return the result of the terminal operation
+     */
+    public R result() {
+        return result;
+    }
+
+    public long totalCpuNanos() {
+        return totalCpuNanos;
+    }
+
+    public long totalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    /**
+     * @return the source followed by each measured stage
+     */
+    public List<Cost> stages() {
+        return stages;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buff = new StringBuilder();
+        buff.append(String.format("%-40s %10s %14s %14s%n", "stage", "calls", "cpu ns", "alloc bytes"));
+
+        for (Cost cost : stages)
+            buff.append(String.format("%-40s %10d %14d %14d%n", cost.description, cost.calls, cost.cpuNanos, cost.allocatedBytes));
+
+        buff.append(String.format("%-40s %10s %14d %14d", "total", "", totalCpuNanos, totalAllocatedBytes));
+
+        return buff.toString();
+    }
+
+    public static class Cost {
+        private final String description;
+        private final long calls;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+
+        Cost(String description, long calls, long cpuNanos, long allocatedBytes) {
+            this.description = description;
+            this.calls = calls;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String description() {
+            return description;
+        }
+
+        /**
+         * @return the number of measured function calls, 0 for the source
+         */
+        public long calls() {
+            return calls;
+        }
+
+        public long cpuNanos() {
+            return cpuNanos;
+        }
+
+        public long allocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
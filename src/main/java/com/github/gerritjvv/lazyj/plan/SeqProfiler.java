@@ -0,0 +1,175 @@
+package com.github.gerritjvv.lazyj.plan;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.github.gerritjvv.lazyj.seq.ObjLongFunction;
+import com.github.gerritjvv.lazyj.seq.ObjLongPredicate;
+
+/**
+ * Measures the functions of each stage of a pipeline for {@link com.github.gerritjvv.lazyj.Seq#profile(Function)}.<br>
+ * Each stage wraps its map and filter functions, a wrapped call records the thread CPU time and the bytes allocated
+ * by the calling thread. Reading the thread counters costs in the order of a microsecond per call, so profile is meant
+ * for finding the expensive stage and not for production use.
+ * <p/>
+ * Thread CPU time measurement is not enabled by the profiler, if the JVM has it disabled the wall time is recorded instead.
+ */
+public class SeqProfiler {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final boolean CPU_TIME = cpuTimeSupported();
+    private static final boolean ALLOCATION = allocationSupported();
+
+    private final List<StageCost> stages = new ArrayList<>();
+    private String source = "source";
+
+    /**
+     * Set the description of the source, the node that could not be rebuilt with measured functions.
+     * All work before the first measured stage is reported as the source.
+     */
+    public void source(String description) {
+        this.source = description;
+    }
+
+    /**
+     * Stages must be added from the source to the last stage.
+     */
+    public StageCost stage(String description) {
+        StageCost stage = new StageCost(description);
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Run the terminal on the profiled pipeline and measure the total cost on the calling thread.
+     */
+    public <T, R> SeqProfile<R> run(T seq, Function<? super T, R> terminal) {
+        long cpu = cpuNanos();
+        long alloc = allocatedBytes();
+
+        R result = terminal.apply(seq);
+
+        return new SeqProfile<>(result, source, cpuNanos() - cpu, allocatedBytes() - alloc, stages);
+    }
+
+    static long cpuNanos() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    static long allocatedBytes() {
+        return ALLOCATION ? ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    private static boolean cpuTimeSupported() {
+        try {
+            return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean allocationSupported() {
+        try {
+            return THREADS instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()
+                    && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemoryEnabled();
+        } catch (Throwable t) {
+            //not a HotSpot JVM
+            return false;
+        }
+    }
+
+    /**
+     * The cost of one stage, updated by all threads that call its functions.
+     */
+    public static class StageCost {
+        private final String description;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        StageCost(String description) {
+            this.description = description;
+        }
+
+        public <A, B> Function<A, B> wrapFunction(Function<A, B> fn) {
+            return v -> {
+                long cpu = cpuNanos();
+                long alloc = allocatedBytes();
+
+                try {
+                    return fn.apply(v);
+                } finally {
+                    record(cpu, alloc);
+                }
+            };
+        }
+
+        public <A> Predicate<A> wrapPredicate(Predicate<A> fn) {
+            return v -> {
+                long cpu = cpuNanos();
+                long alloc = allocatedBytes();
+
+                try {
+                    return fn.test(v);
+                } finally {
+                    record(cpu, alloc);
+                }
+            };
+        }
+
+        public <A, B> ObjLongFunction<A, B> wrapIndexedFunction(ObjLongFunction<A, B> fn) {
+            return (v, i) -> {
+                long cpu = cpuNanos();
+                long alloc = allocatedBytes();
+
+                try {
+                    return fn.accept(v, i);
+                } finally {
+                    record(cpu, alloc);
+                }
+            };
+        }
+
+        public <A> ObjLongPredicate<A> wrapIndexedPredicate(ObjLongPredicate<A> fn) {
+            return (v, i) -> {
+                long cpu = cpuNanos();
+                long alloc = allocatedBytes();
+
+                try {
+                    return fn.test(v, i);
+                } finally {
+                    record(cpu, alloc);
+                }
+            };
+        }
+
+        private void record(long cpu, long alloc) {
+            calls.increment();
+            cpuNanos.add(SeqProfiler.cpuNanos() - cpu);
+            allocatedBytes.add(SeqProfiler.allocatedBytes() - alloc);
+        }
+
+        public String description() {
+            return description;
+        }
+
+        public long calls() {
+            return calls.sum();
+        }
+
+        public long cpuNanos() {
+            return cpuNanos.sum();
+        }
+
+        public long allocatedBytes() {
+            return allocatedBytes.sum();
+        }
+    }
+}
@@ -3,19 +3,37 @@ package com.github.gerritjvv.lazyj.seq;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToIntBiFunction;
 import java.util.stream.Stream;
 
+import com.github.gerritjvv.lazyj.JoinType;
 import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+import com.github.gerritjvv.lazyj.jfr.SeqEvents;
+import com.github.gerritjvv.lazyj.metrics.MetricsRegistry;
+import com.github.gerritjvv.lazyj.metrics.MetricsSink;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.plan.SeqProfile;
+import com.github.gerritjvv.lazyj.plan.SeqProfiler;
+import com.github.gerritjvv.lazyj.sketch.HyperLogLog;
+import com.github.gerritjvv.lazyj.sketch.Sketch;
 
 /**
  *
@@ -75,6 +93,16 @@ public abstract class AbstractSeq<T> implements Seq<T> {
         });
     }
 
+    @Override
+    public Seq<T> filterIndexed(ObjLongPredicate<? super T> predicate) {
+        return new MapIndexSeq<>(closeHandler, predicate, null, Stages.EMPTY, this, 0);
+    }
+
+    @Override
+    public <R> Seq<R> keepIndexed(ObjLongFunction<? super T, ? extends R> fn) {
+        return new MapIndexSeq<>(closeHandler, null, fn, Stages.EMPTY.filter(Objects::nonNull), this, 0);
+    }
+
     @Override
     public Seq<T> take(long n) {
         return createNew(() ->
@@ -89,19 +117,7 @@ public abstract class AbstractSeq<T> implements Seq<T> {
 
     @Override
     public Seq<T> drop(long n) {
-        return createNew(() ->
-        {
-
-            long i = 0;
-            Seq<T> seq = this;
-
-            T first = null;
-
-            while ((first = seq.first()) != null && i++ < n)
-                seq = seq.next();
-
-            return seq;
-        });
+        return new DropMergeSeq<>(closeHandler, this, n, DropMergeSeq.NO_LIMIT);
     }
 
     @Override
@@ -136,6 +152,131 @@ public abstract class AbstractSeq<T> implements Seq<T> {
         return result;
     }
 
+    @Override
+    public <R> Seq<R> reductions(R init, BiFunction<R, ? super T, R> reducer) {
+        return createNew(init, reductions(this, init, reducer));
+    }
+
+    private <R> Seq<R> reductions(Seq<T> seq, R acc, BiFunction<R, ? super T, R> reducer) {
+        return createNew(() ->
+        {
+            T first = seq.first();
+            if (first == null)
+                return empty();
+
+            R result = reducer.apply(acc, first);
+
+            return createNew(result, reductions(seq.next(), result, reducer));
+        });
+    }
+
+    /**
+     * Sequential fold, {@link ArraySeq} and {@link RangeSeq} split the work,
+     * {@link MapMergeSeq} and {@link FilterMergeSeq} pass their operations on to the sequence they wrap.
+     */
+    @Override
+    public <R> R fold(ForkJoinPool pool, int chunkSize, Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn) {
+        R result = identity.get();
+
+        T first = null;
+        Seq<T> seq = this;
+
+        while ((first = seq.first()) != null) {
+            result = reduceFn.apply(result, first);
+            seq = seq.next();
+        }
+
+        return result;
+    }
+
+    @Override
+    public <K> Map<K, List<T>> groupBy(Function<? super T, ? extends K> keyFn) {
+        return this.<Map<K, List<T>>>fold(
+                ForkJoinPool.commonPool(),
+                SeqUtil.DEFAULT_FOLD_CHUNK_SIZE,
+                HashMap::new,
+                (a, b) -> {
+                    //a holds the elements before b, append to keep the sequence order
+                    b.forEach((k, list) -> a.merge(k, list, (l1, l2) -> {
+                        l1.addAll(l2);
+                        return l1;
+                    }));
+                    return a;
+                },
+                (m, v) -> {
+                    m.computeIfAbsent(keyFn.apply(v), k -> new ArrayList<>()).add(v);
+                    return m;
+                });
+    }
+
+    @Override
+    public <K> Map<K, Long> countBy(Function<? super T, ? extends K> keyFn) {
+        //count with mutable long cells to avoid boxing each increment
+        Map<K, long[]> counts = this.<Map<K, long[]>>fold(
+                ForkJoinPool.commonPool(),
+                SeqUtil.DEFAULT_FOLD_CHUNK_SIZE,
+                HashMap::new,
+                (a, b) -> {
+                    Map<K, long[]> big = a.size() >= b.size() ? a : b;
+                    Map<K, long[]> small = big == a ? b : a;
+
+                    small.forEach((k, c) -> {
+                        long[] count = big.putIfAbsent(k, c);
+                        if (count != null)
+                            count[0] += c[0];
+                    });
+
+                    return big;
+                },
+                (m, v) -> {
+                    K k = keyFn.apply(v);
+                    long[] count = m.get(k);
+
+                    if (count == null)
+                        m.put(k, new long[]{1});
+                    else
+                        count[0]++;
+
+                    return m;
+                });
+
+        Map<K, Long> result = new HashMap<>(Math.max(16, (int) (counts.size() / 0.75f) + 1));
+        counts.forEach((k, c) -> result.put(k, c[0]));
+
+        return result;
+    }
+
+    @Override
+    public Map<T, Long> frequencies() {
+        return countBy(Function.identity());
+    }
+
+    @Override
+    public <S extends Sketch<? super T, S>> S sketch(Supplier<S> supplier) {
+        return this.<S>fold(
+                ForkJoinPool.commonPool(),
+                SeqUtil.DEFAULT_FOLD_CHUNK_SIZE,
+                supplier,
+                S::merge,
+                (s, v) -> {
+                    s.update(v);
+                    return s;
+                });
+    }
+
+    @Override
+    public Seq<T> tap(Sketch<? super T, ?> sketch) {
+        return map(v -> {
+            sketch.update(v);
+            return v;
+        });
+    }
+
+    @Override
+    public long approxDistinct() {
+        return sketch(HyperLogLog::new).estimate();
+    }
+
     @Override
     public long count() {
         Seq<T> seq = this;
@@ -168,24 +309,7 @@ public abstract class AbstractSeq<T> implements Seq<T> {
 
     @Override
     public Iterator<T> iterator() {
-        Seq<T> seq = this;
-
-        return new Iterator<T>() {
-
-            Seq<T> itSeq = seq;
-            T first;
-
-            @Override
-            public boolean hasNext() {
-                return itSeq != null && (first = itSeq.first()) != null;
-            }
-
-            @Override
-            public T next() {
-                itSeq = itSeq.next();
-                return first;
-            }
-        };
+        return new SeqIterator<>(this);
     }
 
     @Override
@@ -245,6 +369,175 @@ public abstract class AbstractSeq<T> implements Seq<T> {
         return seq(list);
     }
 
+    @Override
+    public Seq<List<T>> partition(int n) {
+        return partition(n, false);
+    }
+
+    @Override
+    public Seq<List<T>> partition(int n, boolean reuseBuffers) {
+        checkPositive("n", n);
+        return partition(this, n, false, reuseBuffers ? new Object[n] : null);
+    }
+
+    @Override
+    public Seq<List<T>> partitionAll(int n) {
+        return partitionAll(n, false);
+    }
+
+    @Override
+    public Seq<List<T>> partitionAll(int n, boolean reuseBuffers) {
+        checkPositive("n", n);
+        return partition(this, n, true, reuseBuffers ? new Object[n] : null);
+    }
+
+    private Seq<List<T>> partition(Seq<T> seq, int n, boolean all, Object[] reuse) {
+        return createNew(() ->
+        {
+            Object[] buff = reuse == null ? new Object[n] : reuse;
+            Seq<T> rest = seq;
+            T first;
+            int i = 0;
+
+            while (i < n && (first = rest.first()) != null) {
+                buff[i++] = first;
+                rest = rest.next();
+            }
+
+            if (i == 0 || (i < n && !all))
+                return empty();
+
+            return createNew(new ArrayChunk<>(buff, 0, i, false), partition(rest, n, all, reuse));
+        });
+    }
+
+    @Override
+    public Seq<List<T>> partitionBy(Function<? super T, ?> keyFn) {
+        return partitionBy(this, keyFn);
+    }
+
+    private Seq<List<T>> partitionBy(Seq<T> seq, Function<? super T, ?> keyFn) {
+        return createNew(() ->
+        {
+            T first = seq.first();
+            if (first == null)
+                return empty();
+
+            Object key = keyFn.apply(first);
+            List<T> list = new ArrayList<>();
+            list.add(first);
+
+            Seq<T> rest = seq.next();
+
+            while ((first = rest.first()) != null && Objects.equals(key, keyFn.apply(first))) {
+                list.add(first);
+                rest = rest.next();
+            }
+
+            return createNew(list, partitionBy(rest, keyFn));
+        });
+    }
+
+    @Override
+    public Seq<List<T>> window(int size, int step) {
+        return window(size, step, false);
+    }
+
+    @Override
+    public Seq<List<T>> window(int size, int step, boolean reuseBuffers) {
+        checkPositive("size", size);
+        checkPositive("step", step);
+
+        return reuseBuffers
+                ? ringWindow(this, size, step, new Object[size], 0, 0, 0)
+                : window(this, size, step, new Object[2 * size + step], 0, 0, 0);
+    }
+
+    /**
+     * Windows are views into chunk, elements are only ever written at index filled which is past the end of any view,
+     * so that the views stay valid. A new chunk is allocated when the next window does not fit.
+     */
+    private Seq<List<T>> window(Seq<T> seq, int size, int step, Object[] chunk, int start, int filled, int skip) {
+        return createNew(() ->
+        {
+            Seq<T> rest = seq;
+
+            for (int i = 0; i < skip; i++) {
+                if (rest.first() == null)
+                    return empty();
+                rest = rest.next();
+            }
+
+            Object[] buff = chunk;
+            int from = start;
+            int to = filled;
+
+            if (from + size > buff.length) {
+                buff = new Object[buff.length];
+                System.arraycopy(chunk, from, buff, 0, to - from);
+                to -= from;
+                from = 0;
+            }
+
+            T first;
+
+            while (to < from + size && (first = rest.first()) != null) {
+                buff[to++] = first;
+                rest = rest.next();
+            }
+
+            if (to < from + size)
+                return empty();
+
+            int nextStart = from + step;
+
+            return createNew(
+                    new ArrayChunk<>(buff, from, size, false),
+                    nextStart <= to
+                            ? window(rest, size, step, buff, nextStart, to, 0)
+                            : window(rest, size, step, buff, to, to, nextStart - to));
+        });
+    }
+
+    /**
+     * Windows are views into one ring buffer, the next window overwrites the elements that the previous window does not share with it.
+     */
+    private Seq<List<T>> ringWindow(Seq<T> seq, int size, int step, Object[] ring, int head, int count, int skip) {
+        return createNew(() ->
+        {
+            Seq<T> rest = seq;
+
+            for (int i = 0; i < skip; i++) {
+                if (rest.first() == null)
+                    return empty();
+                rest = rest.next();
+            }
+
+            T first;
+            int filled = count;
+
+            while (filled < size && (first = rest.first()) != null) {
+                ring[(head + filled) % size] = first;
+                filled++;
+                rest = rest.next();
+            }
+
+            if (filled < size)
+                return empty();
+
+            return createNew(
+                    new ArrayChunk<>(ring, head, size, true),
+                    step < size
+                            ? ringWindow(rest, size, step, ring, (head + step) % size, size - step, 0)
+                            : ringWindow(rest, size, step, ring, 0, 0, step - size));
+        });
+    }
+
+    private static void checkPositive(String name, int n) {
+        if (n < 1)
+            throw new IllegalArgumentException(name + " must be > 0 but was " + n);
+    }
+
     @Override
     public Seq<T> distinct() {
         return distinct(new HashSet<T>());
@@ -269,10 +562,196 @@ public abstract class AbstractSeq<T> implements Seq<T> {
         });
     }
 
+    @Override
+    public List<Seq<T>> tee(int n, int bufferSize) {
+        return new TeeBuffer<>(this, n, bufferSize, closeHandler).seqs();
+    }
+
+    @Override
+    public List<Seq<T>> shard(int n, Function<? super T, ?> keyFn, int queueCapacity) {
+        return new ShardBuffer<>(this, n, keyFn, queueCapacity, closeHandler).seqs();
+    }
+
+    @Override
+    public Seq<List<T>> batch(int maxSize, long maxDelay, TimeUnit unit) {
+        return batch(BatchIterator.PREFETCH_EXECUTOR, maxSize, maxDelay, unit);
+    }
+
+    @Override
+    public Seq<List<T>> batch(ExecutorService exec, int maxSize, long maxDelay, TimeUnit unit) {
+        ConcurrentMergeQueue<T> queue = new ConcurrentMergeQueue<>(exec, maxSize, new Seq[]{this});
+
+        return SeqUtil.seq(
+                new BatchIterator<>(queue, maxSize, unit.toNanos(maxDelay)),
+                mergeOnClose(queue::close, closeHandler));
+    }
+
+    @Override
+    public Seq<T> coalesce(Function<? super T, ?> keyFn, BinaryOperator<T> mergeFn, int maxBatch, long maxDelay, TimeUnit unit) {
+        KeyCoalescer<T> coalescer = new KeyCoalescer<>(keyFn, mergeFn, maxBatch);
+        Seq<List<T>> batches = batch(maxBatch, maxDelay, unit);
+
+        return batches
+                .mapcat(batch -> SeqUtil.seq(coalescer.coalesce(batch)))
+                .onClose(closeHandlerOf(batches));
+    }
+
+    @Override
+    public <U, K, R> Seq<R> hashJoin(Seq<U> other,
+                                     Function<? super T, ? extends K> leftKey,
+                                     Function<? super U, ? extends K> rightKey,
+                                     BiFunction<? super T, ? super U, ? extends R> combiner) {
+        return hashJoin(other, leftKey, rightKey, combiner, JoinType.INNER, Long.MAX_VALUE);
+    }
+
+    @Override
+    public <U, K, R> Seq<R> hashJoin(Seq<U> other,
+                                     Function<? super T, ? extends K> leftKey,
+                                     Function<? super U, ? extends K> rightKey,
+                                     BiFunction<? super T, ? super U, ? extends R> combiner,
+                                     JoinType type,
+                                     long maxBuildSize) {
+        if (type == JoinType.FULL)
+            throw new IllegalArgumentException("hashJoin does not support full outer joins, use mergeJoin");
+
+        HashJoin<?, ?, K, R> join;
+
+        if (type == JoinType.INNER
+                && this instanceof IndexedSeq && other instanceof IndexedSeq
+                && ((IndexedSeq) this).size() < ((IndexedSeq) other).size()) {
+            //build from the smaller side, the output follows the order of other
+            join = new HashJoin<U, T, K, R>(other, this, rightKey, leftKey, (u, t) -> combiner.apply(t, u), type, maxBuildSize);
+        } else {
+            join = new HashJoin<>(this, other, leftKey, rightKey, combiner, type, maxBuildSize);
+        }
+
+        return SeqUtil.seq(join, mergeOnClose(join::close, mergeOnClose(closeHandler, closeHandlerOf(other))));
+    }
+
+    @Override
+    public <U, R> Seq<R> mergeJoin(Seq<U> other,
+                                   ToIntBiFunction<? super T, ? super U> keyCmp,
+                                   BiFunction<? super T, ? super U, ? extends R> combiner) {
+        return mergeJoin(other, keyCmp, combiner, JoinType.INNER);
+    }
+
+    @Override
+    public <U, R> Seq<R> mergeJoin(Seq<U> other,
+                                   ToIntBiFunction<? super T, ? super U> keyCmp,
+                                   BiFunction<? super T, ? super U, ? extends R> combiner,
+                                   JoinType type) {
+        return SeqUtil.seq(
+                new MergeJoinIterator<>(this, other, keyCmp, combiner, type),
+                mergeOnClose(closeHandler, closeHandlerOf(other)));
+    }
+
+    @Override
+    public Seq<T> instrument(String name) {
+        MetricsSink sink = MetricsRegistry.sink();
+        return sink == null ? this : instrument(name, sink);
+    }
+
+    @Override
+    public Seq<T> instrument(String name, MetricsSink sink) {
+        MetricsSink.Recorder recorder = sink.recorder(name);
+        return instrumented(withRecorder(recorder), recorder, mergeOnClose(closeHandler, recorder::closed));
+    }
+
+    /**
+     * Called when this seq is instrumented, seqs that have metrics of their own return a copy that records to the recorder.
+     */
+    protected Seq<T> withRecorder(MetricsSink.Recorder recorder) {
+        return this;
+    }
+
+    /**
+     * Static so that the instrumented seq only references the current node.
+     */
+    private static <T> Seq<T> instrumented(Seq<T> seq, MetricsSink.Recorder recorder, Runnable closeHandler) {
+        return LazySeq.create(() -> {
+            long start = System.nanoTime();
+            T first = seq.first();
+            recorder.realized(System.nanoTime() - start);
+
+            if (first == null)
+                return Cons.create(null, null, closeHandler);
+
+            recorder.produced();
+            return Cons.create(first, instrumented(seq.next(), recorder, closeHandler), closeHandler);
+        }, closeHandler);
+    }
+
+    @Override
+    public SeqPlan explain() {
+        SeqPlan.Builder plan = SeqPlan.builder();
+        Seq<?> seq = this;
+
+        while (seq != null) {
+            if (seq instanceof AbstractSeq) {
+                seq = ((AbstractSeq<?>) seq).explain(plan);
+            } else {
+                plan.add(seq.getClass().getSimpleName(), "", false, false);
+                seq = null;
+            }
+        }
+
+        return plan.build();
+    }
+
+    /**
+     * Add this node to the plan, nodes that wrap another seq override this to describe their operations.
+     *
+     * @return the seq this node reads from, or null if this node is a source or a lazy boundary
+     */
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add(getClass().getSimpleName(), "", false, false);
+        return null;
+    }
+
+    @Override
+    public <R> SeqProfile<R> profile(Function<? super Seq<T>, R> terminal) {
+        SeqProfiler profiler = new SeqProfiler();
+        return profiler.run(profiledSeq(this, profiler), terminal);
+    }
+
+    /**
+     * Return a copy of this node with its functions measured by the profiler and its upstream profiled.<br>
+     * Nodes without functions of their own are the source of the pipeline.
+     */
+    protected Seq<T> profiled(SeqProfiler profiler) {
+        profiler.source(getClass().getSimpleName());
+        return this;
+    }
+
+    protected static <X> Seq<X> profiledSeq(Seq<X> seq, SeqProfiler profiler) {
+        if (seq instanceof AbstractSeq)
+            return ((AbstractSeq<X>) seq).profiled(profiler);
+
+        profiler.source(seq.getClass().getSimpleName());
+        return seq;
+    }
+
+    @Override
+    public Seq<T> compact() {
+        return ChunkedCons.compact(this, closeHandler);
+    }
+
+    /**
+     * True when first() and next() only return values that were already computed, without calling a function or
+     * waiting on a lock held while computing. Used by {@link #compact()} to find the realized prefix of a sequence.
+     */
+    protected boolean isRealized() {
+        return false;
+    }
+
+    protected static boolean isRealized(Seq<?> seq) {
+        return seq instanceof AbstractSeq && ((AbstractSeq<?>) seq).isRealized();
+    }
+
     @Override
     public void close() {
         if (closeHandler != null)
-            closeHandler.run();
+            SeqEvents.close(closeHandler);
     }
 
 
@@ -319,6 +798,21 @@ public abstract class AbstractSeq<T> implements Seq<T> {
         });
     }
 
+    /**
+     * Return the close handler of the sequence without keeping a reference to the sequence itself,
+     * so that holding on to the handler does not retain the head of the sequence.
+     * @param seq the sequence
+     * @return the close handler or null if the sequence has none
+     */
+    public static Runnable closeHandlerOf(Seq<?> seq) {
+        if (seq == null)
+            return null;
+        else if (seq instanceof AbstractSeq)
+            return ((AbstractSeq<?>) seq).closeHandler;
+        else
+            return seq::close;
+    }
+
     /**
      * Implements the Stream onClose exception logic
      * @param a Runnable
@@ -326,30 +820,38 @@ public abstract class AbstractSeq<T> implements Seq<T> {
      * @return a new runnable that will call a and b
      */
     protected Runnable mergeOnClose(Runnable a, Runnable b) {
-        if (a == null) {
-            return b;
-        } else if (b == null) {
-            return a;
-        } else if (a == b) {
-            return a;
-        } else {
-            return () ->
-            {
-                try {
-                    a.run();
-                } catch (Throwable e1) {
-                    try {
-                        b.run();
-                    } catch (Throwable e2) {
-                        try {
-                            e1.addSuppressed(e2);
-                        } catch (Throwable ignore) {
-                        }
-                    }
-                    throw e1;
-                }
-                b.run();
-            };
+        return SeqUtil.mergeOnClose(a, b);
+    }
+
+    /**
+     * Static so that the iterator does not keep a reference to the seq it was created from,
+     * the realized elements behind the iterator can be garbage collected.
+     */
+    private static final class SeqIterator<T> implements Iterator<T> {
+        private Seq<T> seq;
+        private T first;
+
+        SeqIterator(Seq<T> seq) {
+            this.seq = seq;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (first != null)
+                return true;
+
+            return seq != null && (first = seq.first()) != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            T v = first;
+            first = null;
+            seq = seq.next();
+            return v;
         }
     }
 }
@@ -19,6 +19,7 @@ import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
+import java.util.stream.BaseStream;
 import java.util.stream.Collector;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
@@ -27,6 +28,7 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.jfr.SeqEvents;
 
 /**
  * Extends {@link AbstractSeq} with implementations for Stream.<br/>
@@ -147,21 +149,50 @@ public abstract class AbstractSeqStream<T> extends AbstractSeq<T> {
 
     @Override
     public T reduce(T identity, BinaryOperator<T> accumulator) {
-        return reduce(identity, (BiFunction<T, T, T>) accumulator);
+        //each reduce loops itself, a frame that delegates to another reduce keeps the head reachable till it returns
+        T result = identity;
+
+        T first = null;
+        Seq<T> seq = this;
+
+        while ((first = seq.first()) != null) {
+            result = accumulator.apply(result, first);
+            seq = seq.next();
+        }
+
+        return result;
     }
 
     @Override
     public Optional<T> reduce(BinaryOperator<T> accumulator) {
-        T first = first();
-        if (first == null)
+        T result = first();
+        if (result == null)
             return Optional.empty();
 
-        return Optional.ofNullable(next().reduce(first, accumulator));
+        T first = null;
+        Seq<T> seq = next();
+
+        while ((first = seq.first()) != null) {
+            result = accumulator.apply(result, first);
+            seq = seq.next();
+        }
+
+        return Optional.ofNullable(result);
     }
 
     @Override
     public <U> U reduce(U identity, BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner) {
-        return reduce(identity, (s, u) -> accumulator.apply(s, u));
+        U result = identity;
+
+        T first = null;
+        Seq<T> seq = this;
+
+        while ((first = seq.first()) != null) {
+            result = accumulator.apply(result, first);
+            seq = seq.next();
+        }
+
+        return result;
     }
 
     @Override
@@ -328,6 +359,24 @@ public abstract class AbstractSeqStream<T> extends AbstractSeq<T> {
                 false);
     }
 
+    @Override
+    public LongStream scanLong(long init, LongReducer<? super T> reducer) {
+        return closing(StreamSupport.longStream(new ScanLongSpliterator<>(this, init, reducer), false));
+    }
+
+    @Override
+    public DoubleStream scanDouble(double init, DoubleReducer<? super T> reducer) {
+        return closing(StreamSupport.doubleStream(new ScanDoubleSpliterator<>(this, init, reducer), false));
+    }
+
+    /**
+     * Register only the close handler, a stream that referenced this seq would keep its head reachable.
+     */
+    private <S extends BaseStream<?, S>> S closing(S stream) {
+        Runnable handler = closeHandlerOf(this);
+        return handler == null ? stream : stream.onClose(() -> SeqEvents.close(handler));
+    }
+
     @Override
     public IntStream flatMapToInt(Function<? super T, ? extends IntStream> mapper) {
         T first = first();
@@ -359,4 +408,108 @@ public abstract class AbstractSeqStream<T> extends AbstractSeq<T> {
     public Spliterator<T> spliterator() {
         return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.IMMUTABLE);
     }
+
+    /**
+     * Static class so that only the current position of the sequence is referenced and not its head.
+     */
+    private static final class ScanLongSpliterator<T> implements Spliterator.OfLong {
+
+        private final LongReducer<? super T> reducer;
+        private Seq<T> itSeq;
+        private long acc;
+        private boolean started;
+
+        ScanLongSpliterator(Seq<T> seq, long init, LongReducer<? super T> reducer) {
+            this.itSeq = seq;
+            this.acc = init;
+            this.reducer = reducer;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (!started) {
+                started = true;
+                action.accept(acc);
+                return true;
+            }
+
+            T first;
+            if ((first = itSeq.first()) != null) {
+                acc = reducer.apply(acc, first);
+                itSeq = itSeq.next();
+                action.accept(acc);
+                return true;
+            }
+
+            return false;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            //split is not supported
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.IMMUTABLE;
+        }
+    }
+
+    /**
+     * Static class so that only the current position of the sequence is referenced and not its head.
+     */
+    private static final class ScanDoubleSpliterator<T> implements Spliterator.OfDouble {
+
+        private final DoubleReducer<? super T> reducer;
+        private Seq<T> itSeq;
+        private double acc;
+        private boolean started;
+
+        ScanDoubleSpliterator(Seq<T> seq, double init, DoubleReducer<? super T> reducer) {
+            this.itSeq = seq;
+            this.acc = init;
+            this.reducer = reducer;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (!started) {
+                started = true;
+                action.accept(acc);
+                return true;
+            }
+
+            T first;
+            if ((first = itSeq.first()) != null) {
+                acc = reducer.apply(acc, first);
+                itSeq = itSeq.next();
+                action.accept(acc);
+                return true;
+            }
+
+            return false;
+        }
+
+        @Override
+        public OfDouble trySplit() {
+            //split is not supported
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.IMMUTABLE;
+        }
+    }
 }
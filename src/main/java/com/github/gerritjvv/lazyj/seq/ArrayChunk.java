@@ -0,0 +1,42 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read only list view over a range of an array, used to share one buffer between the lists
+ * returned by the partition and window operations instead of copying each list.<br/>
+ * When ring is true the range wraps around the end of the array.
+ */
+public class ArrayChunk<T> extends AbstractList<T> implements RandomAccess {
+
+    private final Object[] arr;
+    private final int offset;
+    private final int size;
+    private final boolean ring;
+
+    public ArrayChunk(Object[] arr, int offset, int size, boolean ring) {
+        this.arr = arr;
+        this.offset = offset;
+        this.size = size;
+        this.ring = ring;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+
+        int i = offset + index;
+
+        if (ring && i >= arr.length)
+            i -= arr.length;
+
+        return (T) arr[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+
+/**
+ * Sequence over the range [from, to) of an array, nothing is locked or memoized when traversed.<br/>
+ * The array is not copied. Sequences from {@link #create(Runnable, Object[], int)} end at the first null element,
+ * the null is searched for when the size is first needed, a plain traversal only reads the next element.
+ */
+public class ArraySeq<T> extends AbstractSeqStream<T> implements IndexedSeq<T> {
+
+    private static final int UNKNOWN = -1;
+
+    private final Object[] arr;
+    private final int from;
+    //UNKNOWN until the first null after from is found, racing threads compute the same index
+    private int to;
+
+    /**
+     * The array must not contain nulls in the range [from, to).
+     */
+    public ArraySeq(Runnable closeHandler, Object[] arr, int from, int to) {
+        super(closeHandler);
+        this.arr = arr;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @return a sequence of the elements of arr from the index from up to the first null element or the end of arr
+     */
+    public static <T> ArraySeq<T> create(Runnable closeHandler, Object[] arr, int from) {
+        return new ArraySeq<>(closeHandler, arr, from, UNKNOWN);
+    }
+
+    @Override
+    public T first() {
+        return from < (to == UNKNOWN ? arr.length : to) ? (T) arr[from] : null;
+    }
+
+    @Override
+    public Seq<T> next() {
+        int i = from + 1;
+
+        if (to == UNKNOWN)
+            return i < arr.length && arr[i] != null ? create(closeHandler, arr, i) : empty();
+
+        return i < to ? new ArraySeq<>(closeHandler, arr, i, to) : empty();
+    }
+
+    @Override
+    public long size() {
+        return Math.max(0, to() - from);
+    }
+
+    @Override
+    public T nth(long i) {
+        return (T) arr[(int) (from + i)];
+    }
+
+    @Override
+    public long count() {
+        return size();
+    }
+
+    @Override
+    public <R> R fold(ForkJoinPool pool, int chunkSize, Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn) {
+        return FoldTask.fold(pool, this, chunkSize, identity, combineFn, reduceFn);
+    }
+
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add("ArraySeq", "array [" + from + ", " + to() + ")", false, false);
+        return null;
+    }
+
+    /**
+     * O(1) when the end of the range is known, otherwise only the dropped elements are checked for a null
+     */
+    @Override
+    public Seq<T> drop(long n) {
+        if (n <= 0)
+            return this;
+
+        int end = end(n);
+
+        if (to == UNKNOWN && end < arr.length && arr[end] != null)
+            return create(closeHandler, arr, end);
+
+        return new ArraySeq<>(closeHandler, arr, end, Math.max(end, to));
+    }
+
+    /**
+     * Only the taken elements are checked for a null
+     */
+    @Override
+    public Seq<T> take(long n) {
+        return new ArraySeq<>(closeHandler, arr, from, end(Math.max(0, n)));
+    }
+
+    @Override
+    public <R> Seq<R> map(Function<? super T, ? extends R> mapper) {
+        return new MapMergeSeq<>(closeHandler, mapper, this);
+    }
+
+    @Override
+    public Seq<T> filter(Predicate<? super T> predicate) {
+        return new FilterMergeSeq<>(closeHandler, null, this, predicate);
+    }
+
+    @Override
+    public Seq<T> cons(T o) {
+        return Cons.create(o, this, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(Supplier<Seq<R>> fn) {
+        return LazySeq.create(fn, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(R v, Seq<R> seq) {
+        return Cons.create(v, seq, closeHandler);
+    }
+
+    @Override
+    public <R> Seq<R> empty() {
+        return Cons.create(null, null, closeHandler);
+    }
+
+    @Override
+    public Seq<T> onClose(Runnable closeHandler) {
+        return new ArraySeq<>(mergeOnClose(this.closeHandler, closeHandler), arr, from, to);
+    }
+
+    /**
+     * @return the end of the range, searching for the first null the first time it is called
+     */
+    private int to() {
+        if (to == UNKNOWN)
+            to = end(Long.MAX_VALUE);
+
+        return to;
+    }
+
+    /**
+     * @return the index after the first n elements or the end of the range if that is before, does not search past n
+     */
+    private int end(long n) {
+        int max = to == UNKNOWN ? arr.length : to;
+        int limit = n >= max - from ? max : (int) (from + n);
+
+        if (to != UNKNOWN)
+            return Math.max(from, limit);
+
+        int i = from;
+        while (i < limit && arr[i] != null)
+            i++;
+
+        return i;
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Groups the elements of a prefetching queue into batches.<br/>
+ * A batch is returned when it has maxSize elements or when maxDelay has passed since its first element was received,
+ * whichever comes first. The upstream is drained by the queue's producer, so that the delay is honoured even when
+ * the upstream blocks.<br/>
+ * When the upstream fails the elements received before the failure are returned as a batch first,
+ * the failure is thrown by the next call.
+ */
+public class BatchIterator<T> implements Iterator<List<T>> {
+
+    /**
+     * Daemon threads used to prefetch the upstream when no executor is given.
+     */
+    public static final ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("lazyj-prefetch-%d").build());
+
+    private final ConcurrentMergeQueue<T> queue;
+    private final int maxSize;
+    private final long maxDelayNanos;
+
+    private List<T> next;
+
+    //producer failure received after the first element of a batch, thrown after that batch is returned
+    private RuntimeException failure;
+
+    public BatchIterator(ConcurrentMergeQueue<T> queue, int maxSize, long maxDelayNanos) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be > 0 but was " + maxSize);
+
+        this.queue = queue;
+        this.maxSize = maxSize;
+        this.maxDelayNanos = maxDelayNanos;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null)
+            next = nextBatch();
+
+        return next != null;
+    }
+
+    @Override
+    public List<T> next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        List<T> v = next;
+        next = null;
+        return v;
+    }
+
+    private List<T> nextBatch() {
+        if (failure != null) {
+            RuntimeException e = failure;
+            failure = null;
+            throw e;
+        }
+
+        //the delay starts with the first element, so wait without a timeout for it
+        if (!queue.hasNext())
+            return null;
+
+        List<T> batch = new ArrayList<>(Math.min(maxSize, 64));
+        batch.add(queue.next());
+
+        long deadline = System.nanoTime() + maxDelayNanos;
+        long remaining;
+
+        while (batch.size() < maxSize && (remaining = deadline - System.nanoTime()) > 0) {
+            T v;
+
+            try {
+                v = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                //return the elements received before the failure
+                failure = e;
+                break;
+            }
+
+            if (v == null)
+                break;
+
+            batch.add(v);
+        }
+
+        return batch;
+    }
+}
@@ -0,0 +1,271 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+
+/**
+ * Realized elements packed into array chunks followed by the rest of the sequence, created by {@link #compact(Seq, Runnable)}.<br/>
+ * Nothing is locked or computed when traversed, and a chunk is garbage collected once the traversal has moved past it.
+ */
+public class ChunkedCons<T> extends AbstractSeqStream<T> {
+
+    static final int CHUNK_SIZE = 128;
+
+    private final Object[] chunk;
+    private final int offset;
+    private final Seq<T> rest;
+
+    private ChunkedCons(Runnable closeHandler, Object[] chunk, int offset, Seq<T> rest) {
+        super(closeHandler);
+        this.chunk = chunk;
+        this.offset = offset;
+        this.rest = rest;
+    }
+
+    /**
+     * Walk the realized prefix of seq and pack its elements into chunks, the first node that is not realized
+     * and everything after it is kept as is. Nothing is realized.
+     *
+     * @return seq if nothing is realized, otherwise the packed sequence
+     */
+    static <T> Seq<T> compact(Seq<T> seq, Runnable closeHandler) {
+        List<Object[]> chunks = new ArrayList<>();
+        Object[] chunk = new Object[CHUNK_SIZE];
+        int n = 0;
+
+        Seq<T> current = seq;
+        T v;
+
+        while (isRealized(current) && (v = current.first()) != null) {
+            if (n == CHUNK_SIZE) {
+                chunks.add(chunk);
+                chunk = new Object[CHUNK_SIZE];
+                n = 0;
+            }
+
+            chunk[n++] = v;
+            current = current.next();
+        }
+
+        if (n == 0)
+            return seq;
+
+        //at the end of the sequence do not keep the last node, it references the upstream nodes
+        Seq<T> rest = isRealized(current) ? Cons.create(null, null, closeHandler) : current;
+        Seq<T> packed = new ChunkedCons<>(closeHandler, n == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, n), 0, rest);
+
+        for (int i = chunks.size() - 1; i >= 0; i--)
+            packed = new ChunkedCons<>(closeHandler, chunks.get(i), 0, packed);
+
+        return packed;
+    }
+
+    @Override
+    public T first() {
+        return (T) chunk[offset];
+    }
+
+    @Override
+    public Seq<T> next() {
+        return offset + 1 < chunk.length ? new ChunkedCons<>(closeHandler, chunk, offset + 1, rest) : rest;
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        Seq<T> seq = this;
+
+        while (seq instanceof ChunkedCons) {
+            ChunkedCons<T> c = (ChunkedCons<T>) seq;
+            count += c.chunk.length - c.offset;
+            seq = c.rest;
+        }
+
+        return count + seq.count();
+    }
+
+    /**
+     * forEach, reduce and iterator loop over the chunks instead of creating a node per element.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Seq<T> seq = this;
+
+        while (seq instanceof ChunkedCons) {
+            ChunkedCons<T> c = (ChunkedCons<T>) seq;
+            Object[] chunk = c.chunk;
+
+            for (int i = c.offset; i < chunk.length; i++)
+                action.accept((T) chunk[i]);
+
+            seq = c.rest;
+        }
+
+        seq.forEach(action);
+    }
+
+    @Override
+    public <R> R reduce(R init, BiFunction<R, T, R> reducer) {
+        R result = init;
+        Seq<T> seq = this;
+
+        while (seq instanceof ChunkedCons) {
+            ChunkedCons<T> c = (ChunkedCons<T>) seq;
+            Object[] chunk = c.chunk;
+
+            for (int i = c.offset; i < chunk.length; i++)
+                result = reducer.apply(result, (T) chunk[i]);
+
+            seq = c.rest;
+        }
+
+        return seq.reduce(result, reducer);
+    }
+
+    @Override
+    public <U> U reduce(U identity, BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner) {
+        U result = identity;
+        Seq<T> seq = this;
+
+        while (seq instanceof ChunkedCons) {
+            ChunkedCons<T> c = (ChunkedCons<T>) seq;
+            Object[] chunk = c.chunk;
+
+            for (int i = c.offset; i < chunk.length; i++)
+                result = accumulator.apply(result, (T) chunk[i]);
+
+            seq = c.rest;
+        }
+
+        return seq.reduce(result, accumulator, combiner);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new ChunkIterator<>(chunk, offset, rest);
+    }
+
+    @Override
+    protected boolean isRealized() {
+        return true;
+    }
+
+    @Override
+    public Seq<T> compact() {
+        return this;
+    }
+
+    /**
+     * A run of chunks is one stage.
+     */
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        long n = chunk.length - offset;
+        Seq<T> seq = rest;
+
+        while (seq instanceof ChunkedCons) {
+            n += ((ChunkedCons<T>) seq).chunk.length;
+            seq = ((ChunkedCons<T>) seq).rest;
+        }
+
+        plan.add("ChunkedCons", n + " packed", false, false);
+        return seq instanceof Cons && seq.first() == null ? null : seq;
+    }
+
+    @Override
+    public Seq<T> take(long n) {
+        return new TakeMergeSeq<>(closeHandler, this, n);
+    }
+
+    @Override
+    public <R> Seq<R> map(Function<? super T, ? extends R> mapper) {
+        return new MapMergeSeq<>(closeHandler, mapper, this);
+    }
+
+    @Override
+    public Seq<T> filter(Predicate<? super T> predicate) {
+        return new FilterMergeSeq<>(closeHandler, null, this, predicate);
+    }
+
+    @Override
+    public Seq<T> cons(T o) {
+        return Cons.create(o, this, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(Supplier<Seq<R>> fn) {
+        return LazySeq.create(fn, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(R v, Seq<R> seq) {
+        return Cons.create(v, seq, closeHandler);
+    }
+
+    @Override
+    public <R> Seq<R> empty() {
+        return Cons.create(null, null, closeHandler);
+    }
+
+    @Override
+    public Seq<T> onClose(Runnable closeHandler) {
+        return new ChunkedCons<>(mergeOnClose(this.closeHandler, closeHandler), chunk, offset, rest);
+    }
+
+    /**
+     * Static so that the iterator only references the current chunk and the rest of the sequence.
+     */
+    private static final class ChunkIterator<T> implements Iterator<T> {
+        private Object[] chunk;
+        private int i;
+        private Seq<T> rest;
+        private Iterator<T> restIterator;
+
+        ChunkIterator(Object[] chunk, int i, Seq<T> rest) {
+            this.chunk = chunk;
+            this.i = i;
+            this.rest = rest;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (restIterator == null) {
+                if (i < chunk.length)
+                    return true;
+
+                if (rest instanceof ChunkedCons) {
+                    ChunkedCons<T> c = (ChunkedCons<T>) rest;
+                    chunk = c.chunk;
+                    i = c.offset;
+                    rest = c.rest;
+                } else {
+                    restIterator = rest.iterator();
+                    chunk = null;
+                    rest = null;
+                }
+            }
+
+            return restIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            return restIterator == null ? (T) chunk[i++] : restIterator.next();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.google.common.base.Throwables;
+
+/**
+ * Drains each input sequence on its own task into one shared bounded queue.<br/>
+ * Producers block when the queue is full, the single consumer sees the elements in arrival order.<br/>
+ * Producers are only started on the first call to hasNext, next or poll, and are cancelled on close.
+ */
+public class ConcurrentMergeQueue<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Object END = new Object();
+    private static final Object CLOSED = new Object();
+
+    private final ExecutorService exec;
+    private final BlockingQueue<Object> queue;
+
+    private Seq<T>[] seqs;
+    private final List<Future<?>> futures;
+
+    private int running;
+    private boolean started;
+    private volatile boolean closed;
+
+    private T next;
+
+    public ConcurrentMergeQueue(ExecutorService exec, int capacity, Seq<T>[] seqs) {
+        this.exec = exec;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.seqs = seqs.clone();
+        this.futures = new ArrayList<>(seqs.length);
+    }
+
+    private synchronized void start() {
+        if (started)
+            return;
+
+        started = true;
+
+        for (Seq<T> seq : seqs) {
+            if (closed)
+                break;
+
+            running++;
+            futures.add(exec.submit(new Producer<>(queue, seq)));
+        }
+
+        //the producers hold the current position, do not keep the heads here
+        seqs = null;
+    }
+
+    /**
+     * Wait at most timeout for the next element.
+     *
+     * @param timeout the max time to wait
+     * @param unit    the unit of timeout
+     * @return the next element or null if the timeout expired or all inputs are exhausted, check with {@link #isDone()}
+     */
+    public T poll(long timeout, TimeUnit unit) {
+        if (next != null) {
+            T v = next;
+            next = null;
+            return v;
+        }
+
+        return pollQueue(unit.toNanos(timeout));
+    }
+
+    /**
+     * @return true if all inputs are exhausted and there are no more elements to return
+     */
+    public boolean isDone() {
+        start();
+        return next == null && running == 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null)
+            next = pollQueue(Long.MAX_VALUE);
+
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        T v = next;
+        next = null;
+        return v;
+    }
+
+    /**
+     * Stop all producers, producers blocked on a full queue are interrupted.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+
+        for (Future<?> future : futures)
+            future.cancel(true);
+
+        //wake up a consumer that is waiting on the queue, a producer that was mid put can refill the queue after clear
+        do {
+            queue.clear();
+        } while (!queue.offer(CLOSED));
+    }
+
+    private T pollQueue(long timeoutNanos) {
+        start();
+
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        try {
+            while (running > 0) {
+                Object o;
+
+                if (closed) {
+                    running = 0;
+                    break;
+                }
+
+                if (timeoutNanos == Long.MAX_VALUE) {
+                    o = queue.take();
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if ((o = queue.poll(Math.max(0, remaining), TimeUnit.NANOSECONDS)) == null)
+                        return null;
+                }
+
+                if (o == END) {
+                    running--;
+                } else if (o == CLOSED || closed) {
+                    running = 0;
+                } else if (o instanceof Failure) {
+                    //the merge fails as a whole, stop the other producers
+                    running = 0;
+                    close();
+                    throw Throwables.propagate(((Failure) o).error);
+                } else {
+                    return (T) o;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Wraps errors thrown by a producer so that they are re-thrown in the consumer.
+     */
+    private static final class Failure {
+        final Throwable error;
+
+        Failure(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * Keeps only the current position of the input, so that realized elements can be garbage collected.
+     */
+    private static final class Producer<T> implements Runnable {
+        private final BlockingQueue<Object> queue;
+        private Seq<T> seq;
+
+        Producer(BlockingQueue<Object> queue, Seq<T> seq) {
+            this.queue = queue;
+            this.seq = seq;
+        }
+
+        @Override
+        public void run() {
+            try {
+                T v;
+
+                try {
+                    while (seq != null && (v = seq.first()) != null) {
+                        queue.put(v);
+                        seq = seq.next();
+                    }
+                } catch (InterruptedException e) {
+                    //cancelled on close
+                    return;
+                } catch (Throwable t) {
+                    queue.put(new Failure(t));
+                    return;
+                }
+
+                queue.put(END);
+            } catch (InterruptedException e) {
+                //cancelled on close
+            } finally {
+                seq = null;
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.function.Supplier;
 
 import com.github.gerritjvv.lazyj.Functional;
 import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
 
 /**
  * Lazy sequence implementation.<br/>
@@ -16,6 +17,9 @@ import com.github.gerritjvv.lazyj.Seq;
 public class Cons<T> extends AbstractSeqStream<T> {
     public static final Cons EMPTY = new Cons(null, null, null);
 
+    //explain stops counting a realized run after this many cells
+    private static final int EXPLAIN_LIMIT = 1000;
+
     private final T _first;
     private final Seq<T> _next;
 
@@ -35,6 +39,39 @@ public class Cons<T> extends AbstractSeqStream<T> {
         return _next;
     }
 
+    @Override
+    protected boolean isRealized() {
+        return true;
+    }
+
+
+    /**
+     * A run of realized cons cells is one stage, a run longer than {@link #EXPLAIN_LIMIT} cells is not walked to its end
+     * and ends the plan.
+     */
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        if (_first == null) {
+            plan.add("Cons", "empty", false, false);
+            return null;
+        }
+
+        long n = 1;
+        Seq<T> seq = _next;
+
+        while (seq instanceof Cons && seq.first() != null) {
+            if (n == EXPLAIN_LIMIT) {
+                plan.add("Cons", "more than " + n + " realized", false, false);
+                return null;
+            }
+
+            n++;
+            seq = seq.next();
+        }
+
+        plan.add("Cons", n + " realized", false, false);
+        return seq instanceof Cons ? null : seq;
+    }
 
     @Override
     public Seq<T> take(long n) {
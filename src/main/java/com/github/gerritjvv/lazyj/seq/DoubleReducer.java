@@ -0,0 +1,9 @@
+package com.github.gerritjvv.lazyj.seq;
+
+/**
+ * Reducer with a primitive double accumulator, so that the accumulator is not boxed.
+ */
+@FunctionalInterface
+public interface DoubleReducer<T> {
+    double apply(double acc, T v);
+}
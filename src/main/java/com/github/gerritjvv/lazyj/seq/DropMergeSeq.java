@@ -0,0 +1,158 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.plan.SeqProfiler;
+
+/**
+ * Class that merges multiple drop operations into one, and drop followed by take into a single slice.<br/>
+ * The upstream is walked once to skip the dropped items, without a limit the rest of the upstream is returned as is,
+ * with a limit each item is produced by a slice node like {@link TakeMergeSeq}.
+ */
+public class DropMergeSeq<T> extends AbstractSeqStream<T> {
+
+    /**
+     * Take value for a drop without a limit.
+     */
+    public static final long NO_LIMIT = -1;
+
+    private final Seq<T> seq;
+    private final long drop;
+    private final long take;
+
+    private T _first;
+    private Seq<T> _next;
+
+    /**
+     * @param drop the number of items to skip, negative values are treated as 0
+     * @param take the number of items to return after skipping, {@link #NO_LIMIT} or any negative value for no limit
+     */
+    public DropMergeSeq(
+            Runnable closeHandler,
+            Seq<T> seq,
+            long drop,
+            long take) {
+        super(closeHandler);
+        this.seq = seq;
+        this.drop = Math.max(0, drop);
+        this.take = take < 0 ? NO_LIMIT : take;
+    }
+
+    private synchronized void eval() {
+        if (_next == null) {
+            //nothing is taken, do not walk the dropped prefix
+            if (take == 0) {
+                _next = empty();
+                return;
+            }
+
+            Seq<T> current = seq;
+
+            for (long i = 0; i < drop && current.first() != null; i++)
+                current = current.next();
+
+            if ((_first = current.first()) == null)
+                _next = empty();
+            else if (take == NO_LIMIT)
+                _next = LazySeq.create(current.next(), closeHandler);
+            else
+                _next = new DropMergeSeq<>(closeHandler, current.next(), 0, take - 1);
+        }
+    }
+
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add("DropMergeSeq",
+                take == NO_LIMIT ? "drop " + drop : "slice [" + drop + ", " + saturatedAdd(drop, take) + ")",
+                true,
+                false);
+        return seq;
+    }
+
+    @Override
+    protected Seq<T> profiled(SeqProfiler profiler) {
+        return new DropMergeSeq<>(closeHandler, profiledSeq(seq, profiler), drop, take);
+    }
+
+    @Override
+    public Seq<T> drop(long n) {
+        if (n <= 0)
+            return this;
+
+        if (take == NO_LIMIT)
+            return new DropMergeSeq<>(closeHandler, seq, saturatedAdd(drop, n), NO_LIMIT);
+
+        long d = Math.min(n, take);
+        return new DropMergeSeq<>(closeHandler, seq, drop + d, take - d);
+    }
+
+    @Override
+    public Seq<T> take(long n) {
+        long limit = Math.max(0, n);
+        return new DropMergeSeq<>(closeHandler, seq, drop, take == NO_LIMIT ? limit : Math.min(take, limit));
+    }
+
+    @Override
+    public Seq<T> filter(Predicate<? super T> predicate) {
+        return new FilterMergeSeq<>(closeHandler, null, this, predicate);
+    }
+
+    @Override
+    public <R> Seq<R> map(Function<? super T, ? extends R> mapper) {
+        return new MapMergeSeq<>(closeHandler, mapper, this);
+    }
+
+    @Override
+    public T first() {
+        eval();
+        return _first;
+    }
+
+    @Override
+    public Seq<T> next() {
+        eval();
+        return _next;
+    }
+
+    @Override
+    protected synchronized boolean isRealized() {
+        return _next != null;
+    }
+
+    @Override
+    public Seq<T> cons(T o) {
+        return Cons.create(o, this, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(Supplier<Seq<R>> fn) {
+        return LazySeq.create(fn, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(R v, Seq<R> seq) {
+        return Cons.create(v, seq, closeHandler);
+    }
+
+    @Override
+    public <R> Seq<R> empty() {
+        return Cons.create(null, null, closeHandler);
+    }
+
+    @Override
+    public Seq<T> onClose(Runnable closeHandler) {
+        return new DropMergeSeq<>(mergeOnClose(this.closeHandler, closeHandler), seq, drop, take);
+    }
+
+    /**
+     * Saturating add, a drop past Long.MAX_VALUE drops everything anyway.
+     */
+    private static long saturatedAdd(long a, long b) {
+        long r = a + b;
+        return r < 0 ? Long.MAX_VALUE : r;
+    }
+}
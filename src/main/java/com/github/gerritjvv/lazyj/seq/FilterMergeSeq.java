@@ -1,20 +1,28 @@
 package com.github.gerritjvv.lazyj.seq;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.metrics.MetricsSink;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.plan.SeqProfiler;
 
 /**
  * Class that merges multiple filter operations.
- * Mappings are also supported, previous mappings are always applied before a filter is used.
+ * Mappings are also supported, maps and filters before and after each other are merged and applied in call order
+ * in one loop, see {@link Stages}.
+ * When instrumented the number of elements rejected by the filters is recorded.
  */
 public class FilterMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
 
-    private final Function<? super FROM, ? extends TO> mapper;
-    private final Predicate<TO> filter;
+    private final Stages stages;
     private final Seq<FROM> seq;
+    private final MetricsSink.Recorder recorder;
 
     private Supplier<Seq<TO>> search;
 
@@ -27,10 +35,27 @@ public class FilterMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
             Function<? super FROM, ? extends TO> mapper,
             Seq<FROM> seq,
             Predicate<? super TO> filter) {
+        this(closeHandler, mapper, seq, filter, null);
+    }
+
+    public FilterMergeSeq(
+            Runnable closeHandler,
+            Function<? super FROM, ? extends TO> mapper,
+            Seq<FROM> seq,
+            Predicate<? super TO> filter,
+            MetricsSink.Recorder recorder) {
+        this(closeHandler, (mapper == null ? Stages.EMPTY : Stages.EMPTY.map(mapper)).filter(filter), seq, recorder);
+    }
+
+    FilterMergeSeq(
+            Runnable closeHandler,
+            Stages stages,
+            Seq<FROM> seq,
+            MetricsSink.Recorder recorder) {
         super(closeHandler);
-        this.mapper = mapper == null ? (v) -> (TO) v : mapper;
+        this.stages = stages;
         this.seq = seq;
-        this.filter = (Predicate<TO>) filter;
+        this.recorder = recorder;
 
         //function that will do the actual filtering and search
         search = () -> {
@@ -38,31 +63,69 @@ public class FilterMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
             Seq<FROM> currentSeq = seq;
 
             FROM first = null;
-            TO toFirst = null;
-            TO found = null;
+            Object found = Stages.REJECTED;
+            long rejected = 0;
 
             while ((first = currentSeq.first()) != null) {
                 currentSeq = currentSeq.next();
-                toFirst = this.mapper.apply(first);
+                found = stages.apply(first);
 
-                if (filter.test(toFirst)) {
-                    found = toFirst;
+                if (found != Stages.REJECTED)
                     break;
-                }
+
+                rejected++;
             }
 
-            if (found == null)
+            if (recorder != null && rejected > 0)
+                recorder.filtered(rejected);
+
+            if (found == Stages.REJECTED)
                 return empty();
             else if (currentSeq == null)
-                return createNew(found, null);
+                return createNew((TO) found, null);
             else
-                return createNew(found, new FilterMergeSeq<>(closeHandler, mapper, currentSeq, filter));
+                return createNew((TO) found, new FilterMergeSeq<>(closeHandler, stages, currentSeq, recorder));
         };
     }
 
     @Override
     public Seq<TO> filter(Predicate<? super TO> predicate) {
-        return new FilterMergeSeq<>(closeHandler, mapper, seq, this.filter.and(predicate));
+        return new FilterMergeSeq<>(closeHandler, stages.filter(predicate), seq, recorder);
+    }
+
+    /**
+     * Maps after a filter are merged into this node.
+     */
+    @Override
+    public <R> Seq<R> map(Function<? super TO, ? extends R> mapper) {
+        return new FilterMergeSeq<>(closeHandler, stages.map(mapper), seq, recorder);
+    }
+
+    @Override
+    protected Seq<TO> withRecorder(MetricsSink.Recorder recorder) {
+        return new FilterMergeSeq<>(closeHandler, stages, seq, recorder);
+    }
+
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add("FilterMergeSeq", stages.describe(), true, false);
+        return seq;
+    }
+
+    @Override
+    protected Seq<TO> profiled(SeqProfiler profiler) {
+        Seq<FROM> upstream = profiledSeq(seq, profiler);
+        SeqProfiler.StageCost cost = profiler.stage("FilterMergeSeq " + stages.describe());
+
+        return new FilterMergeSeq<>(closeHandler, stages.profiled(cost), upstream, recorder);
+    }
+
+    @Override
+    public <R> R fold(ForkJoinPool pool, int chunkSize, Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super TO, R> reduceFn) {
+        return seq.fold(pool, chunkSize, identity, combineFn, (acc, v) -> {
+            Object to = stages.apply(v);
+            return to != Stages.REJECTED ? reduceFn.apply(acc, (TO) to) : acc;
+        });
     }
 
     @Override
@@ -91,6 +154,11 @@ public class FilterMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
         return _next;
     }
 
+    @Override
+    protected synchronized boolean isRealized() {
+        return search == null;
+    }
+
     @Override
     public Seq<TO> cons(TO o) {
         return Cons.create(o, this, closeHandler);
@@ -113,6 +181,6 @@ public class FilterMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
 
     @Override
     public Seq<TO> onClose(Runnable closeHandler) {
-        return new FilterMergeSeq<>(closeHandler, mapper, seq, filter);
+        return new FilterMergeSeq<>(closeHandler, stages, seq, recorder);
     }
 }
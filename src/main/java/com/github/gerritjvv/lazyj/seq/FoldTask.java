@@ -0,0 +1,67 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Fork join task that splits an {@link IndexedSeq} in halves till a range has at most chunkSize elements,
+ * reduces each range sequentially starting from identity, and combines the results of the halves in order.
+ */
+public class FoldTask<T, R> extends RecursiveTask<R> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final IndexedSeq<T> seq;
+    private final long from;
+    private final long to;
+    private final int chunkSize;
+    private final Supplier<R> identity;
+    private final BinaryOperator<R> combineFn;
+    private final BiFunction<R, ? super T, R> reduceFn;
+
+    public FoldTask(IndexedSeq<T> seq, long from, long to, int chunkSize,
+                    Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn) {
+        this.seq = seq;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+        this.identity = identity;
+        this.combineFn = combineFn;
+        this.reduceFn = reduceFn;
+    }
+
+    @Override
+    protected R compute() {
+        if (to - from <= chunkSize) {
+            R result = identity.get();
+
+            for (long i = from; i < to; i++)
+                result = reduceFn.apply(result, seq.nth(i));
+
+            return result;
+        }
+
+        long mid = (from + to) >>> 1;
+
+        FoldTask<T, R> left = new FoldTask<>(seq, from, mid, chunkSize, identity, combineFn, reduceFn);
+        left.fork();
+
+        R right = new FoldTask<>(seq, mid, to, chunkSize, identity, combineFn, reduceFn).compute();
+
+        return combineFn.apply(left.join(), right);
+    }
+
+    /**
+     * Fold the whole sequence in the pool.
+     */
+    public static <T, R> R fold(ForkJoinPool pool, IndexedSeq<T> seq, int chunkSize,
+                                Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("chunkSize must be > 0 but was " + chunkSize);
+
+        return pool.invoke(new FoldTask<>(seq, 0, seq.size(), chunkSize, identity, combineFn, reduceFn));
+    }
+}
@@ -0,0 +1,382 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.github.gerritjvv.lazyj.JoinType;
+import com.github.gerritjvv.lazyj.Seq;
+import com.google.common.base.Throwables;
+
+/**
+ * Hash join of a streamed left sequence with a build right sequence.<br/>
+ * The right sequence is loaded into a hash table on the first call to hasNext, the left sequence is then streamed lazily
+ * past it, so that the join keeps the order of the left sequence.
+ * <p/>
+ * When the right sequence has more than maxBuildSize elements the join switches to a grace hash join: both sequences are
+ * written to {@link #SPILL_PARTITIONS} temp files partitioned by key hash, and each partition is joined in turn,
+ * in this mode all elements must be {@link java.io.Serializable} and the output is ordered by partition.
+ * Temp files are deleted as each partition is done and on close.
+ */
+public class HashJoin<T, U, K, R> implements Iterator<R>, AutoCloseable {
+
+    public static final int SPILL_PARTITIONS = 32;
+
+    //the object output streams keep a reference to each object written till reset
+    private static final int RESET_INTERVAL = 1024;
+
+    private final Function<? super T, ? extends K> leftKey;
+    private final Function<? super U, ? extends K> rightKey;
+    private final BiFunction<? super T, ? super U, ? extends R> combiner;
+    private final JoinType type;
+    private final long maxBuildSize;
+
+    private Seq<T> left;
+    private Seq<U> right;
+
+    private Map<K, List<U>> table;
+
+    private T current;
+    private List<U> matches;
+    private int matchIndex;
+
+    private R next;
+
+    //grace hash join state
+    private File spillDir;
+    private File[] leftFiles;
+    private File[] rightFiles;
+    private int partition = -1;
+    private ObjectInputStream probeIn;
+    private SpillWriter rightOut;
+    private SpillWriter leftOut;
+
+    public HashJoin(Seq<T> left,
+                    Seq<U> right,
+                    Function<? super T, ? extends K> leftKey,
+                    Function<? super U, ? extends K> rightKey,
+                    BiFunction<? super T, ? super U, ? extends R> combiner,
+                    JoinType type,
+                    long maxBuildSize) {
+        this.left = left;
+        this.right = right;
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.combiner = combiner;
+        this.type = type;
+        this.maxBuildSize = maxBuildSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (table == null)
+            build();
+
+        while (next == null) {
+            if (matches != null && matchIndex < matches.size()) {
+                next = combiner.apply(current, matches.get(matchIndex++));
+                continue;
+            }
+
+            matches = null;
+            current = null;
+
+            T v = nextProbe();
+            if (v == null)
+                return false;
+
+            List<U> found = table.get(leftKey.apply(v));
+
+            if (found != null) {
+                current = v;
+                matches = found;
+                matchIndex = 0;
+            } else if (type == JoinType.LEFT) {
+                next = combiner.apply(v, null);
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        R v = next;
+        next = null;
+        return v;
+    }
+
+    /**
+     * Delete all temp files left over from a grace hash join.
+     */
+    @Override
+    public synchronized void close() {
+        closeQuietly(probeIn);
+        probeIn = null;
+
+        closeWriters();
+
+        if (spillDir != null) {
+            deleteAll(leftFiles);
+            deleteAll(rightFiles);
+            spillDir.delete();
+        }
+    }
+
+    private void build() {
+        table = new HashMap<>();
+
+        Seq<U> seq = right;
+        right = null;
+
+        long count = 0;
+        U v;
+
+        while ((v = seq.first()) != null) {
+            if (count++ >= maxBuildSize) {
+                spill(seq);
+                return;
+            }
+
+            add(table, rightKey.apply(v), v);
+            seq = seq.next();
+        }
+    }
+
+    private T nextProbe() {
+        if (spillDir == null) {
+            T v = left.first();
+
+            if (v != null)
+                left = left.next();
+            else
+                left = null;
+
+            return v;
+        }
+
+        try {
+            while (true) {
+                if (probeIn != null) {
+                    T v = (T) probeIn.readObject();
+
+                    if (v != null)
+                        return v;
+
+                    closeQuietly(probeIn);
+                    probeIn = null;
+                    leftFiles[partition].delete();
+                }
+
+                if (++partition >= SPILL_PARTITIONS) {
+                    table = Collections.emptyMap();
+                    return null;
+                }
+
+                table = loadTable(rightFiles[partition]);
+                probeIn = openIn(leftFiles[partition]);
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private void spill(Seq<U> rest) {
+        try {
+            spillDir = Files.createTempDirectory("lazyj-join").toFile();
+            leftFiles = new File[SPILL_PARTITIONS];
+            rightFiles = new File[SPILL_PARTITIONS];
+
+            for (int i = 0; i < SPILL_PARTITIONS; i++) {
+                leftFiles[i] = new File(spillDir, "left-" + i);
+                rightFiles[i] = new File(spillDir, "right-" + i);
+            }
+
+            rightOut = new SpillWriter(rightFiles);
+
+            for (Map.Entry<K, List<U>> entry : table.entrySet()) {
+                for (U v : entry.getValue())
+                    rightOut.write(entry.getKey(), v);
+            }
+
+            table = null;
+
+            U u;
+            while ((u = rest.first()) != null) {
+                rightOut.write(rightKey.apply(u), u);
+                rest = rest.next();
+            }
+
+            SpillWriter out = rightOut;
+            rightOut = null;
+            out.close();
+
+            leftOut = new SpillWriter(leftFiles);
+
+            T t;
+            while ((t = left.first()) != null) {
+                leftOut.write(leftKey.apply(t), t);
+                left = left.next();
+            }
+
+            left = null;
+
+            out = leftOut;
+            leftOut = null;
+            out.close();
+
+            table = Collections.emptyMap();
+        } catch (IOException e) {
+            close();
+            throw Throwables.propagate(e);
+        } finally {
+            //a key function or the input can also fail while a writer is open
+            closeWriters();
+        }
+    }
+
+    private void closeWriters() {
+        closeQuietly(rightOut);
+        rightOut = null;
+
+        closeQuietly(leftOut);
+        leftOut = null;
+    }
+
+    private Map<K, List<U>> loadTable(File file) throws IOException, ClassNotFoundException {
+        Map<K, List<U>> map = new HashMap<>();
+
+        try (ObjectInputStream in = openIn(file)) {
+            U v;
+
+            while ((v = (U) in.readObject()) != null)
+                add(map, rightKey.apply(v), v);
+        }
+
+        file.delete();
+
+        return map;
+    }
+
+    private static <K, U> void add(Map<K, List<U>> map, K key, U v) {
+        List<U> list = map.get(key);
+
+        //most keys have one match, only allocate a growable list for duplicates
+        if (list == null) {
+            map.put(key, Collections.singletonList(v));
+        } else if (list.size() == 1) {
+            List<U> grow = new ArrayList<>(4);
+            grow.add(list.get(0));
+            grow.add(v);
+            map.put(key, grow);
+        } else {
+            list.add(v);
+        }
+    }
+
+    private static ObjectInputStream openIn(File file) throws IOException {
+        return new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null)
+            return;
+
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            //nothing more we can do, the file is deleted on close
+        }
+    }
+
+    private static void deleteAll(File[] files) {
+        if (files == null)
+            return;
+
+        for (File file : files)
+            file.delete();
+    }
+
+    /**
+     * Writes elements to one object stream per partition, a null marks the end of each stream.
+     */
+    private static final class SpillWriter implements AutoCloseable {
+        private final ObjectOutputStream[] outs;
+        private final int[] written;
+
+        SpillWriter(File[] files) throws IOException {
+            outs = new ObjectOutputStream[files.length];
+            written = new int[files.length];
+
+            try {
+                for (int i = 0; i < files.length; i++)
+                    outs[i] = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(files[i])));
+            } catch (IOException e) {
+                for (ObjectOutputStream out : outs)
+                    closeQuietly(out);
+
+                throw e;
+            }
+        }
+
+        void write(Object key, Object v) throws IOException {
+            int i = key == null ? 0 : ShardBuffer.shardOf(key, outs.length);
+
+            outs[i].writeObject(v);
+
+            if (++written[i] % RESET_INTERVAL == 0)
+                outs[i].reset();
+        }
+
+        /**
+         * Close every stream even if writing the end marker or closing another stream fails.
+         */
+        @Override
+        public void close() throws IOException {
+            IOException error = null;
+
+            for (ObjectOutputStream out : outs) {
+                try {
+                    out.writeObject(null);
+                } catch (IOException e) {
+                    error = suppress(error, e);
+                }
+
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    error = suppress(error, e);
+                }
+            }
+
+            if (error != null)
+                throw error;
+        }
+
+        private static IOException suppress(IOException error, IOException e) {
+            if (error == null)
+                return e;
+
+            error.addSuppressed(e);
+            return error;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import com.github.gerritjvv.lazyj.Seq;
+
+/**
+ * A sequence with a known size and O(1) access by index, used to split work in {@link Seq#fold}.
+ */
+public interface IndexedSeq<T> extends Seq<T> {
+
+    /**
+     * @return the number of elements in the sequence
+     */
+    long size();
+
+    /**
+     * @param i the index, 0 <= i < size()
+     * @return the element at index i
+     */
+    T nth(long i);
+}
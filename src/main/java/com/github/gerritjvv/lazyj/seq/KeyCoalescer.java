@@ -0,0 +1,91 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Collapses the elements of a batch that have the same key into one element using an open addressing hash table.<br/>
+ * The table is sized for maxBatch elements and reused for every batch, elements are returned in first seen key order.
+ * <p/>
+ * Not thread safe, a coalescer is used by one sequence that realizes its batches one at a time.
+ */
+public class KeyCoalescer<T> {
+
+    //the table has 2 to 4 slots per element, a larger maxBatch overflows the int capacity
+    public static final int MAX_BATCH = 1 << 29;
+
+    private final Function<? super T, ?> keyFn;
+    private final BinaryOperator<T> mergeFn;
+
+    private final Object[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    //table slots in first seen order
+    private final int[] order;
+
+    public KeyCoalescer(Function<? super T, ?> keyFn, BinaryOperator<T> mergeFn, int maxBatch) {
+        if (maxBatch < 1 || maxBatch > MAX_BATCH)
+            throw new IllegalArgumentException("maxBatch must be > 0 and <= " + MAX_BATCH + " but was " + maxBatch);
+
+        this.keyFn = keyFn;
+        this.mergeFn = mergeFn;
+
+        //load factor <= 0.5 so that linear probing stays short
+        int capacity = Integer.highestOneBit(Math.max(2, maxBatch) - 1) << 2;
+
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.order = new int[maxBatch];
+    }
+
+    /**
+     * @param batch at most maxBatch elements
+     * @return one element per key, merged with mergeFn(previous, element) in batch order
+     */
+    public List<T> coalesce(List<T> batch) {
+        if (batch.size() > order.length)
+            throw new IllegalArgumentException("batch size " + batch.size() + " > maxBatch " + order.length);
+
+        int size = 0;
+
+        try {
+            for (T v : batch) {
+                Object key = keyFn.apply(v);
+                int h = key.hashCode();
+                int slot = (h ^ (h >>> 16)) & mask;
+
+                while (true) {
+                    Object slotKey = keys[slot];
+
+                    if (slotKey == null) {
+                        keys[slot] = key;
+                        values[slot] = v;
+                        order[size++] = slot;
+                        break;
+                    } else if (slotKey.equals(key)) {
+                        values[slot] = mergeFn.apply((T) values[slot], v);
+                        break;
+                    }
+
+                    slot = (slot + 1) & mask;
+                }
+            }
+
+            Object[] result = new Object[size];
+
+            for (int i = 0; i < size; i++)
+                result[i] = values[order[i]];
+
+            return new ArrayChunk<>(result, 0, size, false);
+        } finally {
+            //clear only the used slots to reuse the table, also when keyFn or mergeFn failed
+            for (int i = 0; i < size; i++) {
+                keys[order[i]] = null;
+                values[order[i]] = null;
+            }
+        }
+    }
+}
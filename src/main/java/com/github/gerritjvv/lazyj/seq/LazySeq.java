@@ -5,12 +5,15 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.jfr.SeqEvents;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
 
 /**
  *
  */
 public class LazySeq<T> extends AbstractSeqStream<T> {
-    private Supplier<Seq<T>> fn;
+    //volatile so that a thread that sees fn == null outside the lock also sees seq
+    private volatile Supplier<Seq<T>> fn;
 
     private Seq<T> seq;
 
@@ -23,7 +26,7 @@ public class LazySeq<T> extends AbstractSeqStream<T> {
         if (fn != null) {
             synchronized (this) {
                 if (fn != null) {
-                    this.seq = fn.get();
+                    this.seq = SeqEvents.lazySeqEval(fn);
                     fn = null;
                 }
             }
@@ -57,6 +60,25 @@ public class LazySeq<T> extends AbstractSeqStream<T> {
         return seq == null ? Cons.EMPTY : seq.next();
     }
 
+    /**
+     * Realized when the function was called and the seq it returned is realized.
+     */
+    @Override
+    protected boolean isRealized() {
+        return fn == null && (seq == null || isRealized(seq));
+    }
+
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        if (fn != null) {
+            plan.add("LazySeq", "unrealized", true, true);
+            return null;
+        }
+
+        plan.add("LazySeq", "realized", true, false);
+        return seq;
+    }
+
     @Override
     public Seq<T> take(long n) {
         return new TakeMergeSeq<>(closeHandler, this, n);
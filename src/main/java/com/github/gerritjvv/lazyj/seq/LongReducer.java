@@ -0,0 +1,9 @@
+package com.github.gerritjvv.lazyj.seq;
+
+/**
+ * Reducer with a primitive long accumulator, so that the accumulator is not boxed.
+ */
+@FunctionalInterface
+public interface LongReducer<T> {
+    long apply(long acc, T v);
+}
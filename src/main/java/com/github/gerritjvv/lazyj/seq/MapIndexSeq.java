@@ -1,20 +1,29 @@
 package com.github.gerritjvv.lazyj.seq;
 
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.plan.SeqProfiler;
 
 /**
  * Map operation that includes an index.
- * Supports an optional filter that is applied before the mapping and also merged map operations.
+ * Supports an optional filter that is applied before the mapping, map and filter operations after the indexed mapping
+ * are merged into the same node as {@link Stages}, the index counts the items of the upstream sequence.
  */
 public class MapIndexSeq<FROM, TO> extends AbstractSeqStream<TO> {
 
-    private final ObjLongFunction<? super FROM, Boolean> filter;
+    private static final ObjLongPredicate<Object> ACCEPT_ALL = (v, i) -> true;
 
-    private final ObjLongFunction<? super FROM, ? extends TO> mapper;
+    private static final ObjLongFunction<Object, Object> IDENTITY = (v, i) -> v;
 
+    private final ObjLongPredicate<? super FROM> filter;
+
+    private final ObjLongFunction<? super FROM, ?> mapper;
+
+    private final Stages stages;
 
     private final Seq<FROM> seq;
 
@@ -28,22 +37,51 @@ public class MapIndexSeq<FROM, TO> extends AbstractSeqStream<TO> {
                        ObjLongFunction<? super FROM, ? extends TO> mapper,
                        Seq<FROM> seq,
                        long index) {
+        this(closeHandler, predicate(filter), mapper, Stages.EMPTY, seq, index);
+    }
+
+    public MapIndexSeq(Runnable closeHandler,
+                       ObjLongPredicate<? super FROM> filter,
+                       ObjLongFunction<? super FROM, ? extends TO> mapper,
+                       Seq<FROM> seq,
+                       long index) {
+        this(closeHandler, filter, mapper, Stages.EMPTY, seq, index);
+    }
+
+    /**
+     * @param filter null to accept all
+     * @param mapper null for the identity, the output of stages must be TO
+     */
+    MapIndexSeq(Runnable closeHandler,
+                ObjLongPredicate<? super FROM> filter,
+                ObjLongFunction<? super FROM, ?> mapper,
+                Stages stages,
+                Seq<FROM> seq,
+                long index) {
         super(closeHandler);
-        this.filter = filter == null ? (v, i) -> true : filter;
-        this.mapper = mapper;
+        this.filter = filter == null ? ACCEPT_ALL : filter;
+        this.mapper = mapper == null ? IDENTITY : mapper;
+        this.stages = stages;
         this.seq = seq;
         this.index = index;
     }
 
+    private static <T> ObjLongPredicate<? super T> predicate(ObjLongFunction<? super T, Boolean> filter) {
+        if (filter == null || filter instanceof ObjLongPredicate)
+            return (ObjLongPredicate<? super T>) filter;
+
+        return (v, i) -> filter.accept(v, i);
+    }
 
     private synchronized void eval() {
         if (_next == null) {
             FROM v;
+            Object r = null;
             Seq<FROM> currentSeq = seq;
             long i = index;
 
             while ((v = currentSeq.first()) != null) {
-                if (filter.accept(v, i))
+                if (filter.test(v, i) && (r = stages.apply(mapper.accept(v, i))) != Stages.REJECTED)
                     break;
 
                 i++;
@@ -54,20 +92,41 @@ public class MapIndexSeq<FROM, TO> extends AbstractSeqStream<TO> {
                 _first = null;
                 _next = empty();
             } else {
-                _first = mapper.accept(v, i);
-                _next = new MapIndexSeq<>(closeHandler, filter, mapper, currentSeq.next(), i + 1);
+                _first = (TO) r;
+                _next = new MapIndexSeq<>(closeHandler, filter, mapper, stages, currentSeq.next(), i + 1);
             }
         }
     }
 
     @Override
     public <R> Seq<R> map(Function<? super TO, ? extends R> mapper) {
-        return new MapIndexSeq<>(
-                closeHandler,
-                filter,
-                (v, i) -> mapper.apply(this.mapper.accept(v, i)), //apply the current mapper with the index, then do the map operation
-                seq,
-                index);
+        return new MapIndexSeq<>(closeHandler, filter, this.mapper, stages.map(mapper), seq, index);
+    }
+
+    @Override
+    public Seq<TO> filter(Predicate<? super TO> predicate) {
+        return new MapIndexSeq<>(closeHandler, filter, mapper, stages.filter(predicate), seq, index);
+    }
+
+    private String operation() {
+        String stagesDescription = stages.describe();
+        return (mapper == IDENTITY ? "filterIndexed" : "mapIndexed")
+                + " from index " + index
+                + (stagesDescription.isEmpty() ? "" : ", " + stagesDescription);
+    }
+
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add("MapIndexSeq", operation(), true, false);
+        return seq;
+    }
+
+    @Override
+    protected Seq<TO> profiled(SeqProfiler profiler) {
+        Seq<FROM> upstream = profiledSeq(seq, profiler);
+        SeqProfiler.StageCost cost = profiler.stage("MapIndexSeq " + operation());
+
+        return new MapIndexSeq<>(closeHandler, cost.wrapIndexedPredicate(filter), cost.wrapIndexedFunction(mapper), stages.profiled(cost), upstream, index);
     }
 
     @Override
@@ -82,6 +141,11 @@ public class MapIndexSeq<FROM, TO> extends AbstractSeqStream<TO> {
         return _next;
     }
 
+    @Override
+    protected synchronized boolean isRealized() {
+        return _next != null;
+    }
+
     @Override
     public Seq<TO> take(long n) {
         return new TakeMergeSeq<>(closeHandler, this, n);
@@ -109,6 +173,6 @@ public class MapIndexSeq<FROM, TO> extends AbstractSeqStream<TO> {
 
     @Override
     public Seq<TO> onClose(Runnable closeHandler) {
-        return new MapIndexSeq<>(mergeOnClose(this.closeHandler, closeHandler), filter, mapper, seq, index);
+        return new MapIndexSeq<>(mergeOnClose(this.closeHandler, closeHandler), filter, mapper, stages, seq, index);
     }
 }
@@ -1,35 +1,45 @@
 package com.github.gerritjvv.lazyj.seq;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.plan.SeqProfiler;
 
 /**
- * Class that merges multiple mappings operations
+ * Class that merges multiple mappings operations, the mappers are applied in one loop, see {@link Stages}.
  */
 public class MapMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
 
-    private final Function<? super FROM, ? extends TO> mapper;
+    private final Stages stages;
     private final Seq<FROM> seq;
 
     private volatile TO first;
+    private volatile Seq<TO> next;
 
     public MapMergeSeq(Runnable closeHandler, Function<? super FROM, ? extends TO> mapper, Seq<FROM> seq) {
+        this(closeHandler, Stages.EMPTY.map(mapper), seq);
+    }
+
+    MapMergeSeq(Runnable closeHandler, Stages stages, Seq<FROM> seq) {
         super(closeHandler);
-        this.mapper = mapper;
+        this.stages = stages;
         this.seq = seq;
     }
 
     @Override
     public <R> Seq<R> map(Function<? super TO, ? extends R> mapper) {
-        return new MapMergeSeq<>(closeHandler, mapper.compose(this.mapper), seq);
+        return new MapMergeSeq<>(closeHandler, stages.map(mapper), seq);
     }
 
     @Override
     public Seq<TO> filter(Predicate<? super TO> predicate) {
-        return new FilterMergeSeq<>(closeHandler, mapper, seq, predicate);
+        return new FilterMergeSeq<>(closeHandler, stages.filter(predicate), seq, null);
     }
 
     @Override
@@ -43,7 +53,7 @@ public class MapMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
                     if (from == null)
                         return null;
 
-                    TO to = mapper.apply(from);
+                    TO to = (TO) stages.apply(from);
                     this.first = to;
 
                     return to;
@@ -54,6 +64,25 @@ public class MapMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
         return first;
     }
 
+    @Override
+    public <R> R fold(ForkJoinPool pool, int chunkSize, Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super TO, R> reduceFn) {
+        return seq.fold(pool, chunkSize, identity, combineFn, (acc, v) -> reduceFn.apply(acc, (TO) stages.apply(v)));
+    }
+
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add("MapMergeSeq", stages.describe(), true, false);
+        return seq;
+    }
+
+    @Override
+    protected Seq<TO> profiled(SeqProfiler profiler) {
+        Seq<FROM> upstream = profiledSeq(seq, profiler);
+        SeqProfiler.StageCost cost = profiler.stage("MapMergeSeq " + stages.describe());
+
+        return new MapMergeSeq<>(closeHandler, stages.profiled(cost), upstream);
+    }
+
     @Override
     public Seq<TO> take(long n) {
         return new TakeMergeSeq<>(closeHandler, this, n);
@@ -61,7 +90,24 @@ public class MapMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
 
     @Override
     public Seq<TO> next() {
-        return new MapMergeSeq<>(closeHandler, mapper, seq.next());
+        //memoise the next node so that a second traversal does not call the mappers again
+        if (next == null) {
+            synchronized (this) {
+                if (next == null)
+                    next = new MapMergeSeq<>(closeHandler, stages, seq.next());
+            }
+        }
+
+        return next;
+    }
+
+    @Override
+    protected boolean isRealized() {
+        if (first != null)
+            return next != null;
+
+        //at the end nothing is mapped or memoised
+        return isRealized(seq) && seq.first() == null;
     }
 
     @Override
@@ -86,6 +132,6 @@ public class MapMergeSeq<FROM, TO> extends AbstractSeqStream<TO> {
 
     @Override
     public Seq<TO> onClose(Runnable closeHandler) {
-        return new MapMergeSeq<>(mergeOnClose(this.closeHandler, closeHandler), mapper, seq);
+        return new MapMergeSeq<>(mergeOnClose(this.closeHandler, closeHandler), stages, seq);
     }
 }
@@ -0,0 +1,128 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.ToIntBiFunction;
+
+import com.github.gerritjvv.lazyj.JoinType;
+import com.github.gerritjvv.lazyj.Seq;
+
+/**
+ * Joins two sequences that are both sorted by key, walking them in lockstep.<br/>
+ * Only the current position of each sequence is held, plus the run of right elements that share the current key,
+ * so that the join works on infinite sequences.
+ */
+public class MergeJoinIterator<T, U, R> implements Iterator<R> {
+
+    private final ToIntBiFunction<? super T, ? super U> keyCmp;
+    private final BiFunction<? super T, ? super U, ? extends R> combiner;
+    private final JoinType type;
+
+    private Seq<T> left;
+    private Seq<U> right;
+
+    //right elements with the same key as current
+    private List<U> run;
+    private int runIndex;
+    private T current;
+
+    private R next;
+
+    public MergeJoinIterator(Seq<T> left,
+                             Seq<U> right,
+                             ToIntBiFunction<? super T, ? super U> keyCmp,
+                             BiFunction<? super T, ? super U, ? extends R> combiner,
+                             JoinType type) {
+        this.left = left;
+        this.right = right;
+        this.keyCmp = keyCmp;
+        this.combiner = combiner;
+        this.type = type;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (run != null) {
+                if (runIndex < run.size()) {
+                    next = combiner.apply(current, run.get(runIndex++));
+                    continue;
+                }
+
+                //the next left element can have the same key and joins with the same run
+                T a = left.first();
+
+                if (a != null && keyCmp.applyAsInt(a, run.get(0)) == 0) {
+                    current = a;
+                    left = left.next();
+                    runIndex = 0;
+                } else {
+                    run = null;
+                    current = null;
+                }
+
+                continue;
+            }
+
+            T a = left.first();
+            U b = right.first();
+
+            if (a == null) {
+                if (b == null || type != JoinType.FULL)
+                    return false;
+
+                next = combiner.apply(null, b);
+                right = right.next();
+            } else if (b == null) {
+                if (type == JoinType.INNER)
+                    return false;
+
+                next = combiner.apply(a, null);
+                left = left.next();
+            } else {
+                int c = keyCmp.applyAsInt(a, b);
+
+                if (c < 0) {
+                    left = left.next();
+
+                    if (type != JoinType.INNER)
+                        next = combiner.apply(a, null);
+                } else if (c > 0) {
+                    right = right.next();
+
+                    if (type == JoinType.FULL)
+                        next = combiner.apply(null, b);
+                } else {
+                    run = new ArrayList<>(2);
+                    run.add(b);
+                    right = right.next();
+
+                    U u;
+                    while ((u = right.first()) != null && keyCmp.applyAsInt(a, u) == 0) {
+                        run.add(u);
+                        right = right.next();
+                    }
+
+                    current = a;
+                    left = left.next();
+                    runIndex = 0;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        R v = next;
+        next = null;
+        return v;
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.gerritjvv.lazyj.Seq;
+
+/**
+ * Iterator that merges k sorted sequences using a binary min heap.<br/>
+ * The heap holds the current node of each non empty input, the node's first() is the buffered head.<br/>
+ * Each element costs O(log k) comparisons, ties are broken by input position so that the merge is stable.
+ */
+public class MergeSortedIterator<T> implements Iterator<T> {
+
+    private final Comparator<? super T> comparator;
+
+    private final Seq<T>[] heap;
+    private final int[] inputIndex;
+
+    private int size;
+
+    public MergeSortedIterator(Comparator<? super T> comparator, Seq<T>[] seqs) {
+        this.comparator = comparator;
+        this.heap = new Seq[seqs.length];
+        this.inputIndex = new int[seqs.length];
+
+        for (int i = 0; i < seqs.length; i++) {
+            Seq<T> seq = seqs[i];
+
+            if (seq != null && seq.first() != null) {
+                heap[size] = seq;
+                inputIndex[size] = i;
+                size++;
+            }
+        }
+
+        for (int i = (size >>> 1) - 1; i >= 0; i--)
+            siftDown(i);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size > 0;
+    }
+
+    @Override
+    public T next() {
+        if (size == 0)
+            throw new NoSuchElementException();
+
+        Seq<T> top = heap[0];
+        T v = top.first();
+
+        Seq<T> rest = top.next();
+
+        if (rest != null && rest.first() != null) {
+            heap[0] = rest;
+        } else {
+            //input exhausted, move the last entry to the top
+            size--;
+            heap[0] = heap[size];
+            inputIndex[0] = inputIndex[size];
+            heap[size] = null;
+        }
+
+        if (size > 0)
+            siftDown(0);
+
+        return v;
+    }
+
+    private void siftDown(int i) {
+        Seq<T> seq = heap[i];
+        int index = inputIndex[i];
+
+        int half = size >>> 1;
+
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+
+            if (right < size && less(heap[right], inputIndex[right], heap[child], inputIndex[child]))
+                child = right;
+
+            if (!less(heap[child], inputIndex[child], seq, index))
+                break;
+
+            heap[i] = heap[child];
+            inputIndex[i] = inputIndex[child];
+            i = child;
+        }
+
+        heap[i] = seq;
+        inputIndex[i] = index;
+    }
+
+    private boolean less(Seq<T> a, int indexA, Seq<T> b, int indexB) {
+        int c = comparator.compare(a.first(), b.first());
+        return c < 0 || (c == 0 && indexA < indexB);
+    }
+}
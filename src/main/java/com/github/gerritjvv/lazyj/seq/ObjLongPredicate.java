@@ -0,0 +1,15 @@
+package com.github.gerritjvv.lazyj.seq;
+
+/**
+ * Predicate on a value and its index, returns a primitive boolean so that indexed filters do not box a result per item.
+ */
+@FunctionalInterface
+public interface ObjLongPredicate<T> extends ObjLongFunction<T, Boolean> {
+
+    boolean test(T v, long i);
+
+    @Override
+    default Boolean accept(T v, long i) {
+        return test(v, i);
+    }
+}
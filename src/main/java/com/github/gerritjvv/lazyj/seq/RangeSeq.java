@@ -0,0 +1,127 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+
+/**
+ * Sequence of the numbers [start, end), the numbers are computed and not stored.
+ */
+public class RangeSeq extends AbstractSeqStream<Long> implements IndexedSeq<Long> {
+
+    private final long start;
+    private final long end;
+
+    public RangeSeq(Runnable closeHandler, long start, long end) {
+        super(closeHandler);
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public Long first() {
+        return start < end ? start : null;
+    }
+
+    @Override
+    public Seq<Long> next() {
+        return start + 1 < end ? new RangeSeq(closeHandler, start + 1, end) : empty();
+    }
+
+    @Override
+    public long size() {
+        if (end <= start)
+            return 0;
+
+        long size = end - start;
+        //saturate ranges wider than Long.MAX_VALUE
+        return size < 0 ? Long.MAX_VALUE : size;
+    }
+
+    @Override
+    public Long nth(long i) {
+        return start + i;
+    }
+
+    @Override
+    public long count() {
+        return size();
+    }
+
+    @Override
+    public <R> R fold(ForkJoinPool pool, int chunkSize, Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super Long, R> reduceFn) {
+        return FoldTask.fold(pool, this, chunkSize, identity, combineFn, reduceFn);
+    }
+
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add("RangeSeq", "range [" + start + ", " + end + ")", false, false);
+        return null;
+    }
+
+    /**
+     * O(1), only the start of the range changes
+     */
+    @Override
+    public Seq<Long> drop(long n) {
+        if (n <= 0)
+            return this;
+
+        return new RangeSeq(closeHandler, offset(n), end);
+    }
+
+    @Override
+    public Seq<Long> take(long n) {
+        return new RangeSeq(closeHandler, start, offset(Math.max(0, n)));
+    }
+
+    /**
+     * @return start + n or end if the range has less than n numbers
+     */
+    private long offset(long n) {
+        long size = size();
+        //a saturated size means the range has more than Long.MAX_VALUE numbers, start + n cannot pass end
+        return n >= size && size != Long.MAX_VALUE ? end : start + n;
+    }
+
+    @Override
+    public <R> Seq<R> map(Function<? super Long, ? extends R> mapper) {
+        return new MapMergeSeq<>(closeHandler, mapper, this);
+    }
+
+    @Override
+    public Seq<Long> filter(Predicate<? super Long> predicate) {
+        return new FilterMergeSeq<>(closeHandler, null, this, predicate);
+    }
+
+    @Override
+    public Seq<Long> cons(Long o) {
+        return Cons.create(o, this, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(Supplier<Seq<R>> fn) {
+        return LazySeq.create(fn, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(R v, Seq<R> seq) {
+        return Cons.create(v, seq, closeHandler);
+    }
+
+    @Override
+    public <R> Seq<R> empty() {
+        return Cons.create(null, null, closeHandler);
+    }
+
+    @Override
+    public Seq<Long> onClose(Runnable closeHandler) {
+        return new RangeSeq(mergeOnClose(this.closeHandler, closeHandler), start, end);
+    }
+}
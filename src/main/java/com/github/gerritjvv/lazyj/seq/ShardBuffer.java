@@ -0,0 +1,212 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+import com.github.gerritjvv.lazyj.jfr.SeqEvents;
+import com.google.common.base.Throwables;
+
+/**
+ * Splits one upstream sequence into n shard sequences by hash(key) % n, each shard is fed through a bounded queue.<br/>
+ * The upstream is pulled by whichever shard consumer runs out of elements, elements for other shards are queued
+ * for them. When the queue of the shard an element belongs to is full, the pulling consumer waits for that shard to
+ * be consumed, so that the shards must be drained on separate threads.<br/>
+ * Elements with the same key always go to the same shard and keep their upstream order.
+ * <p/>
+ * Closing a shard drops the elements routed to it from then on, the upstream close handler is called once all
+ * shards have been closed.
+ */
+public class ShardBuffer<T> {
+
+    private final Function<? super T, ?> keyFn;
+    private final ArrayDeque<T>[] queues;
+    private final boolean[] released;
+    private final int capacity;
+    private final Runnable closeHandler;
+
+    private Seq<T> upstream;
+
+    //element pulled from upstream that does not fit into its shard's queue yet
+    private T pending;
+    private int pendingShard;
+
+    private boolean pulling;
+    private boolean done;
+    private int open;
+
+    public ShardBuffer(Seq<T> upstream, int n, Function<? super T, ?> keyFn, int capacity, Runnable closeHandler) {
+        if (n < 1)
+            throw new IllegalArgumentException("n must be > 0 but was " + n);
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be > 0 but was " + capacity);
+
+        this.upstream = upstream;
+        this.keyFn = keyFn;
+        this.capacity = capacity;
+        this.closeHandler = closeHandler;
+        this.queues = new ArrayDeque[n];
+        this.released = new boolean[n];
+        this.open = n;
+
+        for (int i = 0; i < n; i++)
+            queues[i] = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    /**
+     * @return one sequence per shard
+     */
+    public List<Seq<T>> seqs() {
+        List<Seq<T>> seqs = new ArrayList<>(queues.length);
+
+        for (int i = 0; i < queues.length; i++) {
+            int shard = i;
+            seqs.add(SeqUtil.seq(new Reader(shard), () -> release(shard)));
+        }
+
+        return seqs;
+    }
+
+    /**
+     * @param key the key, cannot be null
+     * @param n   the number of shards
+     * @return the shard index for the key
+     */
+    public static int shardOf(Object key, int n) {
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), n);
+    }
+
+    private T read(int shard) {
+        while (true) {
+            Seq<T> pull;
+
+            synchronized (this) {
+                try {
+                    while (true) {
+                        if (released[shard])
+                            return null;
+
+                        T v = queues[shard].poll();
+                        if (v != null) {
+                            notifyAll();
+                            return v;
+                        }
+
+                        if (pending != null) {
+                            if (!offerPending())
+                                wait();
+                        } else if (done) {
+                            return null;
+                        } else if (pulling) {
+                            wait();
+                        } else {
+                            pulling = true;
+                            pull = upstream;
+                            break;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw Throwables.propagate(e);
+                }
+            }
+
+            //realize the upstream outside of the lock so that other shards can consume their queues
+            T v;
+            int target = -1;
+            Seq<T> next = null;
+
+            try {
+                if ((v = pull.first()) != null) {
+                    target = shardOf(keyFn.apply(v), queues.length);
+                    next = pull.next();
+                }
+            } catch (Throwable t) {
+                synchronized (this) {
+                    pulling = false;
+                    notifyAll();
+                }
+                throw t;
+            }
+
+            synchronized (this) {
+                pulling = false;
+
+                if (v == null) {
+                    done = true;
+                    upstream = null;
+                } else {
+                    pending = v;
+                    pendingShard = target;
+                    upstream = next;
+                }
+
+                notifyAll();
+            }
+        }
+    }
+
+    private boolean offerPending() {
+        if (!released[pendingShard]) {
+            if (queues[pendingShard].size() >= capacity)
+                return false;
+
+            queues[pendingShard].add(pending);
+        }
+
+        pending = null;
+        notifyAll();
+
+        return true;
+    }
+
+    private void release(int shard) {
+        boolean closeUpstream;
+
+        synchronized (this) {
+            if (released[shard])
+                return;
+
+            released[shard] = true;
+            queues[shard].clear();
+            closeUpstream = --open == 0;
+            notifyAll();
+        }
+
+        if (closeUpstream && closeHandler != null)
+            SeqEvents.close(closeHandler);
+    }
+
+    private final class Reader implements Iterator<T> {
+        private final int shard;
+        private T next;
+
+        Reader(int shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null)
+                next = read(shard);
+
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            T v = next;
+            next = null;
+            return v;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.github.gerritjvv.lazyj.plan.SeqProfiler;
+
+/**
+ * The map and filter operations merged into one {@link MapMergeSeq} or {@link FilterMergeSeq}, kept in call order in a
+ * flat array and applied in one loop, instead of nesting a Function.compose or Predicate.and lambda per operation.<br/>
+ * Immutable, adding a stage copies the arrays, which only happens while the pipeline is built.
+ */
+final class Stages {
+
+    /**
+     * Returned by {@link #apply(Object)} when a filter rejected the value.
+     */
+    static final Object REJECTED = new Object();
+
+    static final Stages EMPTY = new Stages(new Object[0], new boolean[0]);
+
+    //Function or Predicate
+    private final Object[] fns;
+    private final boolean[] filters;
+
+    private Stages(Object[] fns, boolean[] filters) {
+        this.fns = fns;
+        this.filters = filters;
+    }
+
+    Stages map(Function<?, ?> mapper) {
+        return add(mapper, false);
+    }
+
+    Stages filter(Predicate<?> predicate) {
+        return add(predicate, true);
+    }
+
+    /**
+     * @return the value after all stages, or {@link #REJECTED}
+     */
+    Object apply(Object v) {
+        Object[] fns = this.fns;
+        boolean[] filters = this.filters;
+
+        for (int i = 0; i < fns.length; i++) {
+            if (filters[i]) {
+                if (!((Predicate<Object>) fns[i]).test(v))
+                    return REJECTED;
+            } else {
+                v = ((Function<Object, Object>) fns[i]).apply(v);
+            }
+        }
+
+        return v;
+    }
+
+    /**
+     * @return a copy with each function measured in the profiler stage
+     */
+    Stages profiled(SeqProfiler.StageCost cost) {
+        Object[] wrapped = new Object[fns.length];
+
+        for (int i = 0; i < fns.length; i++)
+            wrapped[i] = filters[i] ? cost.wrapPredicate((Predicate<Object>) fns[i]) : cost.wrapFunction((Function<Object, Object>) fns[i]);
+
+        return new Stages(wrapped, filters);
+    }
+
+    /**
+     * @return the operations in order with consecutive operations of the same kind counted e.g "map x2, filter x1, map x1"
+     */
+    String describe() {
+        StringBuilder buff = new StringBuilder();
+
+        for (int i = 0; i < fns.length; ) {
+            int j = i;
+            while (j < fns.length && filters[j] == filters[i])
+                j++;
+
+            if (buff.length() > 0)
+                buff.append(", ");
+
+            buff.append(filters[i] ? "filter x" : "map x").append(j - i);
+            i = j;
+        }
+
+        return buff.toString();
+    }
+
+    private Stages add(Object fn, boolean filter) {
+        Object[] fns = Arrays.copyOf(this.fns, this.fns.length + 1);
+        boolean[] filters = Arrays.copyOf(this.filters, this.filters.length + 1);
+
+        fns[fns.length - 1] = fn;
+        filters[filters.length - 1] = filter;
+
+        return new Stages(fns, filters);
+    }
+}
@@ -5,6 +5,8 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.plan.SeqProfiler;
 
 /**
  * Class that merges multiple take operations into one.
@@ -38,11 +40,35 @@ public class TakeMergeSeq<T> extends AbstractSeqStream<T> {
 
     }
 
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add("TakeMergeSeq", "take " + take, true, false);
+        return seq;
+    }
+
+    @Override
+    protected Seq<T> profiled(SeqProfiler profiler) {
+        return new TakeMergeSeq<>(closeHandler, profiledSeq(seq, profiler), take);
+    }
+
     @Override
     public Seq<T> take(long n) {
         return new TakeMergeSeq<>(closeHandler, seq, Math.min(take, n));
     }
 
+    /**
+     * take(a).drop(b) is the slice [b, a) of the upstream
+     */
+    @Override
+    public Seq<T> drop(long n) {
+        if (n <= 0)
+            return this;
+
+        long limit = Math.max(0, take);
+        long d = Math.min(n, limit);
+        return new DropMergeSeq<>(closeHandler, seq, d, limit - d);
+    }
+
     @Override
     public Seq<T> filter(Predicate<? super T> predicate) {
         return new FilterMergeSeq<>(closeHandler, null, this, predicate);
@@ -65,6 +91,11 @@ public class TakeMergeSeq<T> extends AbstractSeqStream<T> {
         return _next;
     }
 
+    @Override
+    protected synchronized boolean isRealized() {
+        return _next != null;
+    }
+
     @Override
     public Seq<T> cons(T o) {
         return Cons.create(o, this, closeHandler);
@@ -87,6 +118,6 @@ public class TakeMergeSeq<T> extends AbstractSeqStream<T> {
 
     @Override
     public Seq<T> onClose(Runnable closeHandler) {
-        return new TakeMergeSeq<>(closeHandler, seq, take);
+        return new TakeMergeSeq<>(mergeOnClose(this.closeHandler, closeHandler), seq, take);
     }
 }
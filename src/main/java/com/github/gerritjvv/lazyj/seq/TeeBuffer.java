@@ -0,0 +1,188 @@
+package com.github.gerritjvv.lazyj.seq;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.SeqUtil;
+import com.github.gerritjvv.lazyj.jfr.SeqEvents;
+import com.google.common.base.Throwables;
+
+/**
+ * Shares one pass over an upstream sequence between n consumers through a ring buffer.<br/>
+ * Each consumer has its own cursor, the upstream is only advanced when the slowest open consumer
+ * is less than bufferSize elements behind, otherwise the consumer that needs a new element waits.<br/>
+ * Memory is bounded by the buffer size and not by the distance between the consumers.
+ * <p/>
+ * Closing a consumer sequence releases its cursor so that it no longer holds back the others,
+ * the upstream close handler is called once all consumers have been closed.
+ */
+public class TeeBuffer<T> {
+
+    private static final long RELEASED = Long.MAX_VALUE;
+
+    private final Object[] ring;
+    private final long[] cursors;
+    private final Runnable closeHandler;
+
+    private Seq<T> upstream;
+    private long produced;
+    private boolean pulling;
+    private boolean done;
+    private int open;
+
+    public TeeBuffer(Seq<T> upstream, int n, int bufferSize, Runnable closeHandler) {
+        if (n < 1)
+            throw new IllegalArgumentException("n must be > 0 but was " + n);
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("bufferSize must be > 0 but was " + bufferSize);
+
+        this.upstream = upstream;
+        this.ring = new Object[bufferSize];
+        this.cursors = new long[n];
+        this.open = n;
+        this.closeHandler = closeHandler;
+    }
+
+    /**
+     * @return one sequence per consumer, each sequence must be consumed on its own thread
+     * or closed when not used, otherwise the other consumers wait once they are bufferSize elements ahead
+     */
+    public List<Seq<T>> seqs() {
+        List<Seq<T>> seqs = new ArrayList<>(cursors.length);
+
+        for (int i = 0; i < cursors.length; i++) {
+            int consumer = i;
+            seqs.add(SeqUtil.seq(new Reader(consumer), () -> release(consumer)));
+        }
+
+        return seqs;
+    }
+
+    private T read(int consumer) {
+        while (true) {
+            Seq<T> pull;
+
+            synchronized (this) {
+                try {
+                    while (true) {
+                        long pos = cursors[consumer];
+
+                        if (pos == RELEASED)
+                            return null;
+
+                        if (pos < produced) {
+                            T v = (T) ring[(int) (pos % ring.length)];
+                            cursors[consumer] = pos + 1;
+
+                            //only the slowest consumer of a full buffer frees a slot
+                            if (produced - pos == ring.length)
+                                notifyAll();
+
+                            return v;
+                        }
+
+                        if (done)
+                            return null;
+
+                        if (pulling || produced - minCursor() >= ring.length) {
+                            //another consumer is realizing the upstream or the slowest consumer still needs the slot we would overwrite
+                            wait();
+                        } else {
+                            pulling = true;
+                            pull = upstream;
+                            break;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw Throwables.propagate(e);
+                }
+            }
+
+            //realize the upstream outside of the lock so that the other consumers can read what is buffered
+            T v;
+            Seq<T> next = null;
+
+            try {
+                if ((v = pull.first()) != null)
+                    next = pull.next();
+            } catch (Throwable t) {
+                synchronized (this) {
+                    pulling = false;
+                    notifyAll();
+                }
+                throw t;
+            }
+
+            synchronized (this) {
+                pulling = false;
+
+                if (v == null) {
+                    done = true;
+                    upstream = null;
+                } else {
+                    ring[(int) (produced % ring.length)] = v;
+                    produced++;
+                    upstream = next;
+                }
+
+                notifyAll();
+            }
+        }
+    }
+
+    private void release(int consumer) {
+        boolean closeUpstream;
+
+        synchronized (this) {
+            if (cursors[consumer] == RELEASED)
+                return;
+
+            cursors[consumer] = RELEASED;
+            closeUpstream = --open == 0;
+            notifyAll();
+        }
+
+        if (closeUpstream && closeHandler != null)
+            SeqEvents.close(closeHandler);
+    }
+
+    private long minCursor() {
+        long min = RELEASED;
+
+        for (long cursor : cursors)
+            min = Math.min(min, cursor);
+
+        return min;
+    }
+
+    private final class Reader implements Iterator<T> {
+        private final int consumer;
+        private T next;
+
+        Reader(int consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null)
+                next = read(consumer);
+
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            T v = next;
+            next = null;
+            return v;
+        }
+    }
+}
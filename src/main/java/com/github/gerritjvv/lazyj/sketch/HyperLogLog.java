@@ -0,0 +1,108 @@
+package com.github.gerritjvv.lazyj.sketch;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * HyperLogLog approximate distinct count, using 2^precision one byte registers.<br>
+ * The relative standard error is about 1.04 / sqrt(2^precision), 0.8% with the default precision of 14 (16KB).
+ * <p>
+ * By default elements are hashed from their 32 bit hashCode with a 64 bit mixer. Elements with equal hash codes count
+ * as one, so the estimate undercounts when hash codes collide, and it degrades well before 2^32 distinct elements
+ * because there are only 2^32 hash codes. For larger cardinalities pass a 64 bit hash function, e.g.
+ * Guava's Hashing.murmur3_128(), to {@link #HyperLogLog(int, ToLongFunction)}.
+ */
+public class HyperLogLog implements Sketch<Object, HyperLogLog> {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    //null to mix the hashCode
+    private final ToLongFunction<Object> hashFn;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        this(precision, null);
+    }
+
+    /**
+     * @param precision the number of index bits, 2^precision registers are used
+     * @param hashFn    returns a well mixed 64 bit hash of an element, sketches that are merged must use the same function
+     */
+    public HyperLogLog(int precision, ToLongFunction<Object> hashFn) {
+        if (precision < 4 || precision > 18)
+            throw new IllegalArgumentException("precision must be between 4 and 18 but was " + precision);
+
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+        this.hashFn = hashFn;
+    }
+
+    @Override
+    public void update(Object v) {
+        long h = hashFn == null ? mix(v.hashCode()) : hashFn.applyAsLong(v);
+
+        int index = (int) (h >>> (64 - precision));
+
+        //the sentinel bit bounds the rank to 64 - precision + 1
+        int rank = Long.numberOfLeadingZeros((h << precision) | (1L << (precision - 1))) + 1;
+
+        if (rank > registers[index])
+            registers[index] = (byte) rank;
+    }
+
+    @Override
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision)
+            throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i])
+                registers[i] = other.registers[i];
+        }
+
+        return this;
+    }
+
+    /**
+     * @return the approximate number of distinct elements
+     */
+    public long estimate() {
+        int m = registers.length;
+
+        double sum = 0;
+        int zeros = 0;
+
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+
+            if (register == 0)
+                zeros++;
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+
+        //small range correction with linear counting
+        if (estimate <= 2.5 * m && zeros > 0)
+            estimate = m * Math.log((double) m / zeros);
+
+        return Math.round(estimate);
+    }
+
+    /**
+     * Murmur3 64 bit finalizer.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
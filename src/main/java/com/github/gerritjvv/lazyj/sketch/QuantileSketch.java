@@ -0,0 +1,209 @@
+package com.github.gerritjvv.lazyj.sketch;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL quantile sketch over numbers.<br>
+ * Values are kept in levels of compactors, a full level is sorted and every other value is promoted to the next level
+ * with twice the weight. Level capacities shrink geometrically away from the top level so memory is O(k) and
+ * the rank error is about 1.65 / k, 1% for the default k of 200.
+ */
+public class QuantileSketch implements Sketch<Number, QuantileSketch> {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+
+    //level h holds sizes[h] values, the capacities only change when a level is added
+    private double[][] levels = new double[4][];
+    private int[] sizes = new int[4];
+    private int[] capacities = new int[4];
+    private int height;
+
+    private int totalSize;
+    private int totalCapacity;
+
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < 8)
+            throw new IllegalArgumentException("k must be >= 8 but was " + k);
+
+        this.k = k;
+        addLevel();
+    }
+
+    @Override
+    public void update(Number n) {
+        double v = n.doubleValue();
+
+        add(0, v);
+        count++;
+
+        if (count == 1 || v < min)
+            min = v;
+        if (count == 1 || v > max)
+            max = v;
+
+        if (totalSize >= totalCapacity)
+            compress();
+    }
+
+    @Override
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.count == 0)
+            return this;
+
+        for (int h = 0; h < other.height; h++) {
+            double[] level = other.levels[h];
+            int size = other.sizes[h];
+
+            while (height <= h)
+                addLevel();
+
+            for (int i = 0; i < size; i++)
+                add(h, level[i]);
+        }
+
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+
+        while (totalSize >= totalCapacity)
+            compress();
+
+        return this;
+    }
+
+    /**
+     * @param q the quantile 0 <= q <= 1, e.g 0.5 for the median
+     * @return the approximate value at quantile q, or NaN if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1)
+            throw new IllegalArgumentException("q must be between 0 and 1 but was " + q);
+
+        if (count == 0)
+            return Double.NaN;
+        if (q == 0)
+            return min;
+        if (q == 1)
+            return max;
+
+        int n = totalSize;
+        double[] values = new double[n];
+        long[] weights = new long[n];
+        Integer[] order = new Integer[n];
+
+        int j = 0;
+        long totalWeight = 0;
+
+        for (int h = 0; h < height; h++) {
+            double[] level = levels[h];
+
+            for (int i = 0; i < sizes[h]; i++) {
+                values[j] = level[i];
+                weights[j] = 1L << h;
+                order[j] = j;
+                totalWeight += weights[j];
+                j++;
+            }
+        }
+
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double target = q * totalWeight;
+        long cumulative = 0;
+
+        for (Integer i : order) {
+            cumulative += weights[i];
+
+            if (cumulative >= target)
+                return values[i];
+        }
+
+        return max;
+    }
+
+    /**
+     * @return the number of values seen
+     */
+    public long count() {
+        return count;
+    }
+
+    private void compress() {
+        for (int h = 0; h < height; h++) {
+            int size = sizes[h];
+
+            if (size >= capacities[h]) {
+                if (h + 1 == height)
+                    addLevel();
+
+                double[] level = levels[h];
+                Arrays.sort(level, 0, size);
+
+                //keep one value when the size is odd so that an even number is compacted
+                int compact = size & ~1;
+                int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+
+                for (int i = offset; i < compact; i += 2)
+                    add(h + 1, level[i]);
+
+                int kept = compact < size ? 1 : 0;
+                if (kept == 1)
+                    level[0] = level[size - 1];
+
+                totalSize -= size - kept;
+                sizes[h] = kept;
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Add a top level, the capacity of each level depends on its depth below the top so all are recomputed.
+     */
+    private void addLevel() {
+        if (height == levels.length) {
+            levels = Arrays.copyOf(levels, height * 2);
+            sizes = Arrays.copyOf(sizes, height * 2);
+            capacities = Arrays.copyOf(capacities, height * 2);
+        }
+
+        levels[height++] = new double[8];
+
+        double capacity = k;
+        totalCapacity = 0;
+
+        for (int h = height - 1; h >= 0; h--) {
+            capacities[h] = Math.max(2, (int) Math.ceil(capacity));
+            totalCapacity += capacities[h];
+            capacity *= CAPACITY_DECAY;
+        }
+    }
+
+    private void add(int h, double v) {
+        double[] level = levels[h];
+        int size = sizes[h];
+
+        if (size == level.length) {
+            level = Arrays.copyOf(level, size * 2);
+            levels[h] = level;
+        }
+
+        level[size] = v;
+        sizes[h] = size + 1;
+        totalSize++;
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.gerritjvv.lazyj.sketch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Uniform random sample of at most k elements (reservoir sampling, algorithm R).<br>
+ * Merging draws from each sample in proportion to the number of elements each has seen.
+ */
+public class ReservoirSample<T> implements Sketch<T, ReservoirSample<T>> {
+
+    private final int k;
+    private final List<T> sample;
+    private long count;
+
+    public ReservoirSample(int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("k must be > 0 but was " + k);
+
+        this.k = k;
+        this.sample = new ArrayList<>(Math.min(k, 1024));
+    }
+
+    @Override
+    public void update(T v) {
+        count++;
+
+        if (sample.size() < k) {
+            sample.add(v);
+        } else {
+            long i = ThreadLocalRandom.current().nextLong(count);
+
+            if (i < k)
+                sample.set((int) i, v);
+        }
+    }
+
+    @Override
+    public ReservoirSample<T> merge(ReservoirSample<T> other) {
+        if (other.count == 0)
+            return this;
+
+        if (count + other.count <= k) {
+            sample.addAll(other.sample);
+            count += other.count;
+            return this;
+        }
+
+        List<T> a = new ArrayList<>(sample);
+        List<T> b = new ArrayList<>(other.sample);
+
+        Collections.shuffle(a, ThreadLocalRandom.current());
+        Collections.shuffle(b, ThreadLocalRandom.current());
+
+        //each sampled element stands for count / sample size elements of its input
+        double weightA = count;
+        double weightB = other.count;
+        double perA = a.isEmpty() ? 0 : weightA / a.size();
+        double perB = b.isEmpty() ? 0 : weightB / b.size();
+
+        int ia = 0;
+        int ib = 0;
+
+        sample.clear();
+
+        while (sample.size() < k && (ia < a.size() || ib < b.size())) {
+            boolean takeA = ib >= b.size()
+                    || (ia < a.size() && ThreadLocalRandom.current().nextDouble() * (weightA + weightB) < weightA);
+
+            if (takeA) {
+                sample.add(a.get(ia++));
+                weightA -= perA;
+            } else {
+                sample.add(b.get(ib++));
+                weightB -= perB;
+            }
+        }
+
+        count += other.count;
+
+        return this;
+    }
+
+    /**
+     * @return the sampled elements, at most k
+     */
+    public List<T> sample() {
+        return Collections.unmodifiableList(sample);
+    }
+
+    /**
+     * @return the number of elements seen
+     */
+    public long count() {
+        return count;
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.gerritjvv.lazyj.sketch;
+
+/**
+ * A fixed memory summary of the elements of a sequence that is updated in a single pass.<br>
+ * Sketches built over separate parts of a sequence can be merged, which is how {@link com.github.gerritjvv.lazyj.Seq#sketch}
+ * combines the sketches of parallel chunks.
+ * <p>
+ * Sketches are not thread safe.
+ *
+ * @param <T> the type of elements the sketch accepts
+ * @param <S> the sketch type
+ */
+public interface Sketch<T, S extends Sketch<T, S>> {
+
+    /**
+     * Add an element to the sketch.
+     *
+     * @param v the element
+     */
+    void update(T v);
+
+    /**
+     * Merge other into this sketch.
+     *
+     * @param other a sketch with the same configuration
+     * @return this sketch
+     */
+    S merge(S other);
+}
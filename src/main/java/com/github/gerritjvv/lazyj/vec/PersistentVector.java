@@ -0,0 +1,279 @@
+package com.github.gerritjvv.lazyj.vec;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import com.github.gerritjvv.lazyj.Seq;
+
+/**
+ * Immutable vector stored as a 32-way trie of arrays with the last elements kept in a separate tail array.<br/>
+ * Heavily inspired by clojure's clojure.lang.PersistentVector.
+ * <p/>
+ * nth is O(log32 n), conj copies at most one path of the trie and shares everything else with the vector it was
+ * created from, so older versions stay valid and can be shared between threads without copying.
+ * Use {@link #asTransient()} to load many elements without copying a path per element.
+ * <p/>
+ * Elements cannot be null, null marks the end of a {@link Seq}.
+ */
+public final class PersistentVector<T> extends AbstractList<T> implements RandomAccess {
+
+    static final int BITS = 5;
+    static final int WIDTH = 1 << BITS;
+    static final int MASK = WIDTH - 1;
+
+    private static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+
+    private static final PersistentVector EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int cnt;
+    private final int shift;
+    private final Node root;
+    private final Object[] tail;
+
+    private PersistentVector(int cnt, int shift, Node root, Object[] tail) {
+        this.cnt = cnt;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    public static <T> PersistentVector<T> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return a vector with the elements of it, the vector itself if it is the seq view of a whole vector
+     */
+    public static <T> PersistentVector<T> create(Iterable<? extends T> it) {
+        if (it instanceof PersistentVector)
+            return (PersistentVector<T>) it;
+
+        if (it instanceof VectorSeq) {
+            PersistentVector<T> vec = ((VectorSeq<T>) it).wholeVector();
+            if (vec != null)
+                return vec;
+        }
+
+        Transient<T> v = PersistentVector.<T>empty().asTransient();
+
+        if (it instanceof Seq)
+            ((Seq<? extends T>) it).forEach(v::conj);
+        else
+            for (T o : it)
+                v.conj(o);
+
+        return v.persistent();
+    }
+
+    @Override
+    public int size() {
+        return cnt;
+    }
+
+    /**
+     * @param i the index, 0 <= i < size()
+     * @return the element at index i
+     */
+    public T nth(int i) {
+        if (i < 0 || i >= cnt)
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + cnt);
+
+        return (T) arrayFor(i)[i & MASK];
+    }
+
+    @Override
+    public T get(int index) {
+        return nth(index);
+    }
+
+    /**
+     * @return a new vector with v added at the end, this vector is not changed
+     */
+    public PersistentVector<T> conj(T v) {
+        checkNotNull(v);
+
+        if (cnt - tailOffset(cnt) < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = v;
+            return new PersistentVector<>(cnt + 1, shift, root, newTail);
+        }
+
+        //the tail is full, push it into the trie
+        Node tailNode = new Node(null, tail);
+        int newShift = shift;
+        Node newRoot;
+
+        if ((cnt >>> BITS) > (1 << shift)) {
+            newRoot = new Node(null, new Object[WIDTH]);
+            newRoot.array[0] = root;
+            newRoot.array[1] = newPath(null, shift, tailNode);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(null, cnt, shift, root, tailNode);
+        }
+
+        return new PersistentVector<>(cnt + 1, newShift, newRoot, new Object[]{v});
+    }
+
+    /**
+     * @return a sequence over the vector, iterating it walks the arrays of the trie directly
+     */
+    public Seq<T> seq() {
+        return new VectorSeq<>(null, this, 0, cnt);
+    }
+
+    /**
+     * @return a builder that shares the trie of this vector and adds elements in place
+     */
+    public Transient<T> asTransient() {
+        return new Transient<>(cnt, shift, root, tail);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return seq().iterator();
+    }
+
+    /**
+     * @return the array that contains the element at index i, elements of the same array have the same i >>> 5
+     */
+    Object[] arrayFor(int i) {
+        if (i >= tailOffset(cnt))
+            return tail;
+
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS)
+            node = (Node) node.array[(i >>> level) & MASK];
+
+        return node.array;
+    }
+
+    private static int tailOffset(int cnt) {
+        return cnt < WIDTH ? 0 : ((cnt - 1) >>> BITS) << BITS;
+    }
+
+    private static void checkNotNull(Object v) {
+        if (v == null)
+            throw new IllegalArgumentException("a vector cannot contain null");
+    }
+
+    /**
+     * Add the full tail array as the last leaf of the trie, copying or when owned by edit updating the path to it.
+     */
+    private static Node pushTail(Object edit, int cnt, int level, Node parent, Node tailNode) {
+        int subIndex = ((cnt - 1) >>> level) & MASK;
+        Node ret = parent.editable(edit);
+
+        Node toInsert;
+        if (level == BITS) {
+            toInsert = tailNode;
+        } else {
+            Node child = (Node) parent.array[subIndex];
+            toInsert = child != null
+                    ? pushTail(edit, cnt, level - BITS, child, tailNode)
+                    : newPath(edit, level - BITS, tailNode);
+        }
+
+        ret.array[subIndex] = toInsert;
+        return ret;
+    }
+
+    private static Node newPath(Object edit, int level, Node node) {
+        if (level == 0)
+            return node;
+
+        Node ret = new Node(edit, new Object[WIDTH]);
+        ret.array[0] = newPath(edit, level - BITS, node);
+        return ret;
+    }
+
+    /**
+     * A node of the trie, nodes created by a transient are owned by its edit token and only that transient changes them in place.
+     */
+    private static final class Node {
+        final Object edit;
+        final Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        Node editable(Object edit) {
+            return edit != null && this.edit == edit ? this : new Node(edit, array.clone());
+        }
+    }
+
+    /**
+     * Builder for a {@link PersistentVector} that adds elements in place instead of copying, not thread safe.<br/>
+     * After {@link #persistent()} the transient cannot be used anymore.
+     */
+    public static final class Transient<T> {
+        private Object edit = new Object();
+
+        private int cnt;
+        private int shift;
+        private Node root;
+        private Object[] tail;
+
+        private Transient(int cnt, int shift, Node root, Object[] tail) {
+            this.cnt = cnt;
+            this.shift = shift;
+            this.root = new Node(edit, root.array.clone());
+            this.tail = Arrays.copyOf(tail, WIDTH);
+        }
+
+        public Transient<T> conj(T v) {
+            checkEditable();
+            checkNotNull(v);
+
+            if (cnt - tailOffset(cnt) < WIDTH) {
+                tail[cnt & MASK] = v;
+                cnt++;
+                return this;
+            }
+
+            Node tailNode = new Node(edit, tail);
+            tail = new Object[WIDTH];
+            tail[0] = v;
+
+            if ((cnt >>> BITS) > (1 << shift)) {
+                Node newRoot = new Node(edit, new Object[WIDTH]);
+                newRoot.array[0] = root;
+                newRoot.array[1] = newPath(edit, shift, tailNode);
+                root = newRoot;
+                shift += BITS;
+            } else {
+                root = pushTail(edit, cnt, shift, root, tailNode);
+            }
+
+            cnt++;
+            return this;
+        }
+
+        public int size() {
+            return cnt;
+        }
+
+        /**
+         * @return the vector with the elements added so far, the transient cannot be used after this call
+         */
+        public PersistentVector<T> persistent() {
+            checkEditable();
+            edit = null;
+
+            if (cnt == 0)
+                return empty();
+
+            return new PersistentVector<>(cnt, shift, root, Arrays.copyOf(tail, cnt - tailOffset(cnt)));
+        }
+
+        private void checkEditable() {
+            if (edit == null)
+                throw new IllegalStateException("transient used after persistent()");
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.gerritjvv.lazyj.vec;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.github.gerritjvv.lazyj.Seq;
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.seq.AbstractSeqStream;
+import com.github.gerritjvv.lazyj.seq.Cons;
+import com.github.gerritjvv.lazyj.seq.FilterMergeSeq;
+import com.github.gerritjvv.lazyj.seq.FoldTask;
+import com.github.gerritjvv.lazyj.seq.IndexedSeq;
+import com.github.gerritjvv.lazyj.seq.LazySeq;
+import com.github.gerritjvv.lazyj.seq.MapMergeSeq;
+
+/**
+ * Sequence over the range [start, end) of a {@link PersistentVector}, nothing is locked or memoized when traversed.<br/>
+ * Each node keeps the 32 element array of the trie that contains its element, moving to the next element only
+ * looks up the trie when crossing into the next array. forEach, reduce and iterator loop over the arrays directly.
+ */
+public class VectorSeq<T> extends AbstractSeqStream<T> implements IndexedSeq<T> {
+
+    private final PersistentVector<T> vec;
+    private final int start;
+    private final int end;
+    private final Object[] chunk;
+
+    VectorSeq(Runnable closeHandler, PersistentVector<T> vec, int start, int end) {
+        this(closeHandler, vec, start, end, start < end ? vec.arrayFor(start) : null);
+    }
+
+    private VectorSeq(Runnable closeHandler, PersistentVector<T> vec, int start, int end, Object[] chunk) {
+        super(closeHandler);
+        this.vec = vec;
+        this.start = start;
+        this.end = end;
+        this.chunk = chunk;
+    }
+
+    /**
+     * @return the vector if this sequence covers all of it, otherwise null
+     */
+    PersistentVector<T> wholeVector() {
+        return start == 0 && end == vec.size() ? vec : null;
+    }
+
+    @Override
+    public T first() {
+        return start < end ? (T) chunk[start & PersistentVector.MASK] : null;
+    }
+
+    @Override
+    public Seq<T> next() {
+        int i = start + 1;
+
+        if (i >= end)
+            return empty();
+
+        return new VectorSeq<>(closeHandler, vec, i, end, (i & PersistentVector.MASK) == 0 ? vec.arrayFor(i) : chunk);
+    }
+
+    @Override
+    public long size() {
+        return Math.max(0, end - start);
+    }
+
+    @Override
+    public T nth(long i) {
+        return vec.nth((int) (start + i));
+    }
+
+    @Override
+    public long count() {
+        return size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        int i = start;
+
+        while (i < end) {
+            Object[] arr = vec.arrayFor(i);
+            int to = Math.min(end - (i & ~PersistentVector.MASK), arr.length);
+
+            for (int j = i & PersistentVector.MASK; j < to; j++)
+                action.accept((T) arr[j]);
+
+            i = (i & ~PersistentVector.MASK) + PersistentVector.WIDTH;
+        }
+    }
+
+    @Override
+    public <R> R reduce(R init, BiFunction<R, T, R> reducer) {
+        R result = init;
+        int i = start;
+
+        while (i < end) {
+            Object[] arr = vec.arrayFor(i);
+            int to = Math.min(end - (i & ~PersistentVector.MASK), arr.length);
+
+            for (int j = i & PersistentVector.MASK; j < to; j++)
+                result = reducer.apply(result, (T) arr[j]);
+
+            i = (i & ~PersistentVector.MASK) + PersistentVector.WIDTH;
+        }
+
+        return result;
+    }
+
+    @Override
+    public <U> U reduce(U identity, BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner) {
+        U result = identity;
+        int i = start;
+
+        while (i < end) {
+            Object[] arr = vec.arrayFor(i);
+            int to = Math.min(end - (i & ~PersistentVector.MASK), arr.length);
+
+            for (int j = i & PersistentVector.MASK; j < to; j++)
+                result = accumulator.apply(result, (T) arr[j]);
+
+            i = (i & ~PersistentVector.MASK) + PersistentVector.WIDTH;
+        }
+
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new VectorIterator<>(vec, start, end);
+    }
+
+    @Override
+    public <R> R fold(ForkJoinPool pool, int chunkSize, Supplier<R> identity, BinaryOperator<R> combineFn, BiFunction<R, ? super T, R> reduceFn) {
+        return FoldTask.fold(pool, this, chunkSize, identity, combineFn, reduceFn);
+    }
+
+    @Override
+    protected boolean isRealized() {
+        return true;
+    }
+
+    @Override
+    public Seq<T> compact() {
+        return this;
+    }
+
+    @Override
+    protected Seq<?> explain(SeqPlan.Builder plan) {
+        plan.add("VectorSeq", "vector [" + start + ", " + end + ")", false, false);
+        return null;
+    }
+
+    /**
+     * O(1), only the start index changes
+     */
+    @Override
+    public Seq<T> drop(long n) {
+        return n <= 0 ? this : new VectorSeq<>(closeHandler, vec, start + (int) Math.min(n, size()), end);
+    }
+
+    @Override
+    public Seq<T> take(long n) {
+        return new VectorSeq<>(closeHandler, vec, start, start + (int) Math.min(Math.max(0, n), size()), chunk);
+    }
+
+    @Override
+    public <R> Seq<R> map(Function<? super T, ? extends R> mapper) {
+        return new MapMergeSeq<>(closeHandler, mapper, this);
+    }
+
+    @Override
+    public Seq<T> filter(Predicate<? super T> predicate) {
+        return new FilterMergeSeq<>(closeHandler, null, this, predicate);
+    }
+
+    @Override
+    public Seq<T> cons(T o) {
+        return Cons.create(o, this, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(Supplier<Seq<R>> fn) {
+        return LazySeq.create(fn, closeHandler);
+    }
+
+    @Override
+    protected <R> Seq<R> createNew(R v, Seq<R> seq) {
+        return Cons.create(v, seq, closeHandler);
+    }
+
+    @Override
+    public <R> Seq<R> empty() {
+        return Cons.create(null, null, closeHandler);
+    }
+
+    @Override
+    public Seq<T> onClose(Runnable closeHandler) {
+        return new VectorSeq<>(mergeOnClose(this.closeHandler, closeHandler), vec, start, end, chunk);
+    }
+
+    /**
+     * Walks the arrays of the trie, looking up the next array once every 32 elements.
+     */
+    private static final class VectorIterator<T> implements Iterator<T> {
+        private final PersistentVector<T> vec;
+        private final int end;
+        private int i;
+        private Object[] chunk;
+
+        VectorIterator(PersistentVector<T> vec, int start, int end) {
+            this.vec = vec;
+            this.i = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return i < end;
+        }
+
+        @Override
+        public T next() {
+            if (i >= end)
+                throw new NoSuchElementException();
+
+            if (chunk == null || (i & PersistentVector.MASK) == 0)
+                chunk = vec.arrayFor(i);
+
+            return (T) chunk[i++ & PersistentVector.MASK];
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.gerritjvv.lazyj;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import com.github.gerritjvv.lazyj.columnar.BatchSeq;
+import com.github.gerritjvv.lazyj.columnar.RecordBatch;
+import com.github.gerritjvv.lazyj.columnar.Schema;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the columnar batch sequences against the same operations on a sequence of objects.
+ */
+public class ColumnarTests {
+
+    private static final Schema<Event> SCHEMA = Schema.<Event>builder()
+            .longColumn("ts", e -> e.ts)
+            .doubleColumn("value", e -> e.value)
+            .objectColumn("name", e -> e.name)
+            .build();
+
+    @Test
+    public void testFilterAggregate() {
+        BatchSeq batches = BatchSeq.from(events(1000), SCHEMA, 64)
+                .filterLong("ts", ts -> ts % 3 == 0)
+                .filterObject("name", (String name) -> !name.equals("b"));
+
+        Seq<Event> expected = events(1000).filter(e -> e.ts % 3 == 0 && !e.name.equals("b"));
+
+        assertEquals(expected.count(), batches.count());
+        assertEquals(expected.reduce(0L, (acc, e) -> acc + e.ts).longValue(), batches.sumLong("ts"));
+        assertEquals(expected.reduce(0.0, (acc, e) -> acc + e.value), batches.sumDouble("value"), 0.0001);
+        assertEquals(OptionalLong.of(0), batches.minLong("ts"));
+        assertEquals(OptionalLong.of(999), batches.maxLong("ts"));
+    }
+
+    @Test
+    public void testMapOnSelectedRows() {
+        BatchSeq batches = BatchSeq.from(events(100), SCHEMA, 16)
+                .filterDouble("value", v -> v >= 50)
+                .mapLong("ts", "ts2", ts -> ts * 2)
+                .mapDouble("value", "value", v -> -v);
+
+        assertEquals(events(100).filter(e -> e.value >= 50).reduce(0L, (acc, e) -> acc + e.ts * 2).longValue(), batches.sumLong("ts2"));
+        assertEquals(-events(100).filter(e -> e.value >= 50).reduce(0.0, (acc, e) -> acc + e.value), batches.sumDouble("value"), 0.0001);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Seq<Event> seq = BatchSeq.from(events(300), SCHEMA, 32)
+                .filterLong("ts", ts -> ts % 2 == 1)
+                .toSeq((batch, row) -> new Event(
+                        batch.getLong(0, row),
+                        batch.getDouble(1, row),
+                        (String) batch.getObject(2, row)));
+
+        List<String> expected = events(300).filter(e -> e.ts % 2 == 1).map(Event::toString).toList();
+
+        assertEquals(expected, seq.map(Event::toString).toList());
+    }
+
+    @Test
+    public void testEmptyBatchesSkipped() {
+        BatchSeq batches = BatchSeq.from(events(100), SCHEMA, 10).filterLong("ts", ts -> ts < 15);
+
+        assertEquals(2, batches.batches().count());
+        assertEquals(15, batches.count());
+        assertEquals(OptionalLong.empty(), batches.filterLong("ts", ts -> ts > 1000).minLong("ts"));
+    }
+
+    @Test
+    public void testMinMaxIgnoreEmptyBatch() {
+        RecordBatch empty = RecordBatch.builder(0).longColumn("x", new long[0]).build();
+        RecordBatch batch = RecordBatch.builder(2).longColumn("x", new long[]{3, 7}).build();
+
+        assertEquals(OptionalLong.empty(), BatchSeq.of(SeqUtil.seq(empty)).minLong("x"));
+        assertEquals(OptionalLong.empty(), BatchSeq.of(SeqUtil.seq(empty)).maxLong("x"));
+        assertEquals(OptionalLong.of(3), BatchSeq.of(SeqUtil.seq(empty, batch, empty)).minLong("x"));
+        assertEquals(OptionalLong.of(7), BatchSeq.of(SeqUtil.seq(empty, batch, empty)).maxLong("x"));
+    }
+
+    @Test
+    public void testBatchBuilder() {
+        RecordBatch batch = RecordBatch.builder(4)
+                .longColumn("a", new long[]{1, 2, 3, 4})
+                .doubleColumn("b", new double[]{0.5, 1.5, 2.5, 3.5})
+                .build()
+                .filterLong("a", a -> a % 2 == 0);
+
+        assertEquals(2, batch.size());
+        assertEquals(4, batch.rowCount());
+        assertEquals(3, batch.row(1));
+        assertEquals(6, batch.sumLong("a"));
+        assertEquals(5.0, batch.sumDouble("b"), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongColumnType() {
+        BatchSeq.from(events(10), SCHEMA).sumLong("value");
+    }
+
+    @Test
+    public void testCloseClosesSource() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+
+        try (BatchSeq batches = BatchSeq.from(events(10).onClose(() -> closed.set(true)), SCHEMA)) {
+            assertEquals(10, batches.count());
+        }
+
+        assertTrue(closed.get());
+    }
+
+    private static Seq<Event> events(int n) {
+        String[] names = {"a", "b", "c"};
+        return SeqUtil.range(0, n).map(i -> new Event(i, i % 100, names[(int) (i % names.length)]));
+    }
+
+    private static final class Event {
+        final long ts;
+        final double value;
+        final String name;
+
+        Event(long ts, double value, String name) {
+            this.ts = ts;
+            this.value = value;
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return ts + ":" + value + ":" + name;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.gerritjvv.lazyj;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the compaction of realized sequences into packed chunks.
+ */
+public class CompactTests {
+
+    @Test
+    public void testCompactRealizedPipeline() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Seq<Integer> seq = lazyNumbers(1000)
+                .map(v -> {
+                    calls.incrementAndGet();
+                    return v * 2;
+                })
+                .filter(v -> v % 3 == 0);
+
+        List<Integer> expected = seq.toList();
+        Seq<Integer> compacted = seq.compact();
+
+        assertEquals("[ChunkedCons 333 packed]", compacted.explain().stages().toString());
+        assertEquals(expected, compacted.toList());
+        assertEquals(expected, seq.toList());
+
+        //realized values are not computed again
+        assertEquals(1000, calls.get());
+    }
+
+    @Test
+    public void testCompactUnrealized() {
+        Seq<Integer> seq = lazyNumbers(10).map(v -> v + 1);
+
+        assertSame(seq, seq.compact());
+    }
+
+    @Test
+    public void testCompactKeepsUnrealizedRest() {
+        Seq<Integer> seq = lazyNumbers(10).map(v -> v + 1);
+
+        //realize the first 3
+        assertEquals(3, seq.take(3).count());
+
+        Seq<Integer> compacted = seq.compact();
+        List<SeqPlan.Stage> stages = compacted.explain().stages();
+
+        assertEquals("ChunkedCons 3 packed", stages.get(stages.size() - 1).toString());
+        assertEquals(seq.toList(), compacted.toList());
+        assertEquals(10, compacted.count());
+    }
+
+    @Test
+    public void testTraverseChunksAndRest() {
+        Seq<Integer> seq = lazyNumbers(300).map(v -> v + 1);
+        assertEquals(200, seq.take(200).count());
+
+        Seq<Integer> compacted = seq.compact();
+        List<Integer> expected = seq.toList();
+
+        List<Integer> iterated = new ArrayList<>();
+        compacted.iterator().forEachRemaining(iterated::add);
+
+        List<Integer> forEach = new ArrayList<>();
+        compacted.forEach(forEach::add);
+
+        assertEquals(expected, iterated);
+        assertEquals(expected, forEach);
+        assertEquals(300, compacted.count());
+        assertEquals(45450L, compacted.reduce(0L, (acc, v) -> acc + v).longValue());
+        assertEquals(45450, compacted.reduce(0, (acc, v) -> acc + v, Integer::sum).intValue());
+    }
+
+    @Test
+    public void testForceEagerCompacts() {
+        Seq<Long> seq = SeqUtil.range(0, 300).map(v -> v + 1).forceEager();
+
+        assertEquals("[ChunkedCons 300 packed]", seq.explain().stages().toString());
+        assertEquals(300L, seq.first() + seq.drop(299).first() - 1);
+        assertEquals(45150L, seq.reduce(0L, Long::sum).longValue());
+    }
+
+    @Test
+    public void testCompactKeepsCloseHandler() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+
+        Seq<Integer> seq = lazyNumbers(10).onClose(() -> closed.set(true)).map(v -> v + 1).forceEager();
+        seq.close();
+
+        assertTrue(closed.get());
+    }
+
+    private static Seq<Integer> lazyNumbers(int i) {
+        if (i > 0)
+            return Functional.lazySeq(i, () -> lazyNumbers(i - 1));
+        else
+            return Functional.lazySeqEmpty();
+    }
+}
@@ -0,0 +1,304 @@
+package com.github.gerritjvv.lazyj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.gerritjvv.lazyj.seq.KeyCoalescer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the sequence operations that hand elements between threads.
+ */
+public class ConcurrentSeqTests {
+
+    private ExecutorService exec;
+
+    @Before
+    public void setup() {
+        exec = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void shutdown() {
+        exec.shutdownNow();
+    }
+
+    @Test
+    public void testMergeConcurrent() {
+        int len = 1000;
+
+        Seq<Integer> seq = SeqUtil.mergeConcurrent(
+                exec,
+                16,
+                range(0, len),
+                range(len, len * 2),
+                range(len * 2, len * 3));
+
+        Set<Integer> seen = new HashSet<>();
+        seq.forEach(v -> assertTrue(seen.add(v)));
+
+        assertEquals(len * 3, seen.size());
+    }
+
+    @Test
+    public void testMergeConcurrentInfiniteAndClose() {
+        AtomicInteger counter = new AtomicInteger(0);
+        AtomicBoolean closed1 = new AtomicBoolean(false);
+        AtomicBoolean closed2 = new AtomicBoolean(false);
+
+        Seq<Integer> seq = SeqUtil.mergeConcurrent(
+                exec,
+                4,
+                Functional.repeatedly(counter::incrementAndGet).onClose(() -> closed1.set(true)),
+                Functional.repeatedly(counter::incrementAndGet).onClose(() -> closed2.set(true)));
+
+        assertEquals(100, seq.take(100).count());
+
+        seq.close();
+
+        assertTrue(closed1.get());
+        assertTrue(closed2.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMergeConcurrentError() {
+        Seq<Integer> failing = Functional.lazySeq(1, () -> {
+            throw new IllegalStateException("test");
+        });
+
+        SeqUtil.mergeConcurrent(exec, range(0, 10), failing).count();
+    }
+
+    @Test
+    public void testMergeConcurrentErrorStopsOthers() throws Exception {
+        AtomicInteger counter = new AtomicInteger(0);
+        Seq<Integer> failing = Functional.lazySeq(1, () -> {
+            throw new IllegalStateException("test");
+        });
+
+        try {
+            SeqUtil.mergeConcurrent(exec, 4, Functional.repeatedly(counter::incrementAndGet), failing).count();
+            fail("expected the error of the failing input");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        //the infinite producer blocked on the full queue is cancelled
+        exec.shutdown();
+        assertTrue(exec.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTee() throws Exception {
+        int len = 10000;
+        AtomicInteger upstreamReads = new AtomicInteger(0);
+        AtomicBoolean closed = new AtomicBoolean(false);
+
+        List<Seq<Integer>> seqs = range(0, len)
+                .map(v -> {
+                    upstreamReads.incrementAndGet();
+                    return v;
+                })
+                .onClose(() -> closed.set(true))
+                .tee(3, 8);
+
+        List<Future<Long>> sums = new ArrayList<>();
+        for (Seq<Integer> seq : seqs)
+            sums.add(exec.submit(() -> seq.reduce(0L, (acc, v) -> acc + v)));
+
+        long expected = (long) len * (len - 1) / 2;
+        for (Future<Long> sum : sums)
+            assertEquals(expected, sum.get().longValue());
+
+        //one upstream pass shared by all consumers
+        assertEquals(len, upstreamReads.get());
+
+        seqs.get(0).close();
+        seqs.get(1).close();
+        assertFalse(closed.get());
+
+        seqs.get(2).close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testTeeClosedConsumerDoesNotBlock() {
+        List<Seq<Integer>> seqs = range(0, 100).tee(2, 4);
+
+        seqs.get(1).close();
+
+        assertEquals(100, seqs.get(0).count());
+    }
+
+    @Test
+    public void testShard() throws Exception {
+        int len = 10000;
+        int shards = 4;
+
+        //pairs of (key, sequence number)
+        List<Seq<Pair<Integer, Integer>>> seqs = range(0, len)
+                .map(v -> (Pair<Integer, Integer>) Pair.create(v % 10, v))
+                .shard(shards, p -> p.left, 8);
+
+        List<Future<Integer>> counts = new ArrayList<>();
+
+        for (int i = 0; i < shards; i++) {
+            Seq<Pair<Integer, Integer>> seq = seqs.get(i);
+
+            counts.add(exec.submit(() -> {
+                int[] last = new int[10];
+                Arrays.fill(last, -1);
+
+                return seq.reduce(0, (count, p) -> {
+                    //per key order is kept
+                    assertTrue(last[p.left] < p.right);
+                    last[p.left] = p.right;
+                    return count + 1;
+                });
+            }));
+        }
+
+        int total = 0;
+        for (Future<Integer> count : counts)
+            total += count.get();
+
+        assertEquals(len, total);
+    }
+
+    @Test
+    public void testShardClose() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+
+        List<Seq<Integer>> seqs = range(0, 1000).onClose(() -> closed.set(true)).shard(2, v -> v % 2, 4);
+
+        seqs.get(1).close();
+        assertEquals(500, seqs.get(0).count());
+        assertFalse(closed.get());
+
+        seqs.get(0).close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testBatchSize() {
+        List<List<Integer>> batches = range(0, 25).batch(exec, 10, 1, TimeUnit.MINUTES).toList();
+
+        assertEquals(3, batches.size());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), batches.get(0));
+        assertEquals(10, batches.get(1).size());
+        assertEquals(Arrays.asList(20, 21, 22, 23, 24), batches.get(2));
+    }
+
+    @Test
+    public void testBatchFailureAfterPartialBatch() {
+        Iterator<List<Integer>> batches = range(0, 5).map(v -> {
+            if (v == 3)
+                throw new IllegalStateException("upstream failed");
+
+            return v;
+        }).batch(exec, 10, 1, TimeUnit.MINUTES).iterator();
+
+        assertEquals(Arrays.asList(0, 1, 2), batches.next());
+
+        try {
+            batches.hasNext();
+            fail("the upstream failure should be thrown after the partial batch");
+        } catch (IllegalStateException e) {
+            assertEquals("upstream failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBatchDelayWithBlockedUpstream() {
+        BlockingQueue<Integer> input = new LinkedBlockingQueue<>();
+        input.addAll(Arrays.asList(1, 2, 3));
+
+        AtomicBoolean closed = new AtomicBoolean(false);
+
+        //the upstream blocks after the third element
+        Seq<List<Integer>> batches = Functional.repeatedly(() -> {
+            try {
+                return input.take();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }).onClose(() -> closed.set(true)).batch(100, 50, TimeUnit.MILLISECONDS);
+
+        assertEquals(Arrays.asList(1, 2, 3), batches.first());
+
+        input.add(4);
+        assertEquals(Arrays.asList(4), batches.next().first());
+
+        batches.close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testCoalesce() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+
+        //pairs of (key, value), values of the same key are summed
+        Seq<Pair<String, Integer>> seq = SeqUtil.seq(kv("a", 1), kv("b", 1), kv("a", 2), kv("c", 1), kv("a", 3), kv("b", 4))
+                .onClose(() -> closed.set(true))
+                .coalesce(p -> p.left, (p1, p2) -> kv(p1.left, p1.right + p2.right), 4, 1, TimeUnit.MINUTES);
+
+        //batches [a1 b1 a2 c1] [a3 b4]
+        assertEquals(
+                Arrays.asList(kv("a", 3), kv("b", 1), kv("c", 1), kv("a", 3), kv("b", 4)),
+                seq.toList());
+
+        seq.close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testCoalescerReusableAfterFailure() {
+        KeyCoalescer<Pair<String, Integer>> coalescer = new KeyCoalescer<>(p -> p.left, (p1, p2) -> {
+            if (p2.right < 0)
+                throw new IllegalStateException("merge failed");
+
+            return kv(p1.left, p1.right + p2.right);
+        }, 4);
+
+        try {
+            coalescer.coalesce(Arrays.asList(kv("a", 1), kv("b", 1), kv("a", -1)));
+            fail("merge should fail");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        assertEquals(Arrays.asList(kv("a", 5), kv("b", 2)), coalescer.coalesce(Arrays.asList(kv("a", 5), kv("b", 2))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoalescerMaxBatchTooLarge() {
+        new KeyCoalescer<Integer>(v -> v, (a, b) -> a, KeyCoalescer.MAX_BATCH + 1);
+    }
+
+    private static Pair<String, Integer> kv(String k, int v) {
+        return Pair.create(k, v);
+    }
+
+    private static Seq<Integer> range(int from, int to) {
+        return from < to ? Functional.lazySeq(from, () -> range(from + 1, to)) : Functional.lazySeqEmpty();
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.gerritjvv.lazyj;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import com.github.gerritjvv.lazyj.columnar.BatchSeq;
+import com.github.gerritjvv.lazyj.columnar.RecordBatch;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that walking a sequence does not keep its realized head reachable.<br/>
+ * The head is only referenced weakly by the test, it must be collectable once the traversal has moved past it.
+ * The long running version of these checks is the SoakHarness in the lazyj-benchmarks module.
+ */
+public class HeadRetentionTests {
+
+    @Test
+    public void testIteratorDoesNotRetainHead() {
+        Seq<Long> seq = numbers();
+        WeakReference<Seq<Long>> head = new WeakReference<>(seq);
+
+        Iterator<Long> it = seq.iterator();
+        seq = null;
+
+        for (int i = 0; i < 1000; i++)
+            it.next();
+
+        assertTrue(collected(head));
+        assertTrue(it.hasNext());
+    }
+
+    @Test
+    public void testMappedIteratorDoesNotRetainHead() {
+        Seq<Long> seq = numbers().map(v -> v + 1).filter(v -> v % 2 == 0);
+        WeakReference<Seq<Long>> head = new WeakReference<>(seq);
+
+        Iterator<Long> it = seq.iterator();
+        seq = null;
+
+        for (int i = 0; i < 1000; i++)
+            it.next();
+
+        assertTrue(collected(head));
+    }
+
+    @Test
+    public void testReduceDoesNotRetainHead() {
+        AtomicReference<Seq<Long>> holder = new AtomicReference<>(numbers());
+        WeakReference<Seq<Long>> head = new WeakReference<>(holder.get());
+        AtomicBoolean headCollected = new AtomicBoolean(false);
+
+        try {
+            //only the reduce frame references the seq, once the loop is compiled the head is no longer live
+            holder.getAndSet(null).reduce(0L, (acc, v) -> {
+                if (v % 200_000 == 0 && collected(head)) {
+                    headCollected.set(true);
+                    throw new Stop();
+                }
+
+                if (v > 1_000_000)
+                    throw new Stop();
+
+                return acc + v;
+            });
+        } catch (Stop e) {
+            //traversal stopped
+        }
+
+        assertTrue(headCollected.get());
+    }
+
+    @Test
+    public void testScanDoesNotRetainHead() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        AtomicReference<Seq<Long>> holder = new AtomicReference<>(numbers().onClose(() -> closed.set(true)));
+        WeakReference<Seq<Long>> head = new WeakReference<>(holder.get());
+
+        LongStream scan = holder.getAndSet(null).scanLong(0, (acc, v) -> acc + v);
+        PrimitiveIterator.OfLong it = scan.iterator();
+
+        for (int i = 0; i < 1000; i++)
+            it.nextLong();
+
+        assertTrue(collected(head));
+
+        scan.close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testBatchAggregationDoesNotRetainHead() {
+        AtomicReference<WeakReference<RecordBatch>> head = new AtomicReference<>();
+        AtomicBoolean headCollected = new AtomicBoolean(false);
+
+        //the batches are memoized like the batches of BatchSeq.from
+        AtomicReference<BatchSeq> holder = new AtomicReference<>(BatchSeq.of(SeqUtil.seq(numbers().map(i -> {
+            if (i == 1) {
+                RecordBatch batch = batch(i);
+                head.set(new WeakReference<>(batch));
+                return batch;
+            }
+
+            if (i % 100 == 0 && collected(head.get())) {
+                headCollected.set(true);
+                throw new Stop();
+            }
+
+            if (i > 1000)
+                throw new Stop();
+
+            return batch(i);
+        }).iterator())).filterLong("x", x -> x % 2 == 0));
+
+        try {
+            //few batches, the aggregation loop stays interpreted and only the static frame references the batches
+            BatchSeq.sumLong(holder.getAndSet(null).batches(), "x");
+        } catch (Stop e) {
+            //traversal stopped
+        }
+
+        assertTrue(headCollected.get());
+    }
+
+    private static Seq<Long> numbers() {
+        AtomicLong counter = new AtomicLong();
+        return Functional.repeatedly(counter::incrementAndGet);
+    }
+
+    private static RecordBatch batch(long i) {
+        return RecordBatch.builder(2).longColumn("x", new long[]{i, i + 1}).build();
+    }
+
+    private static boolean collected(WeakReference<?> ref) {
+        for (int i = 0; i < 10 && ref.get() != null; i++) {
+            System.gc();
+
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return ref.get() == null;
+    }
+
+    /**
+     * Thrown from inside reduce to stop the traversal of an infinite seq.
+     */
+    private static final class Stop extends RuntimeException {
+        Stop() {
+            super(null, null, false, false);
+        }
+    }
+}
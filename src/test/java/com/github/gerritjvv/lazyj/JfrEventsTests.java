@@ -0,0 +1,70 @@
+package com.github.gerritjvv.lazyj;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import com.github.gerritjvv.lazyj.jfr.SeqEvents;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that the JFR events are recorded when enabled.
+ */
+public class JfrEventsTests {
+
+    private static final String PREFIX = "com.github.gerritjvv.lazyj.";
+
+    @Test
+    public void testEventsRecorded() throws Exception {
+        assertTrue(SeqEvents.isAvailable());
+
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        Path file = Files.createTempFile("lazyj", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"LazySeqEval", "Close", "ParallelSubmit", "ParallelTask", "DelayDeref"})
+                recording.enable(PREFIX + name).withThreshold(Duration.ZERO);
+
+            recording.start();
+
+            Seq<Integer> seq = Functional.lazySeq(() -> SeqUtil.seq(1, 2, 3)).onClose(() -> {
+            });
+            seq.first();
+            seq.close();
+
+            int sum = SeqUtil.seq(1, 2, 3).doParallel(exec, v -> v * 2, 0, Integer::sum);
+            assertEquals(12, sum);
+
+            assertEquals("a", Delay.create(() -> "a").deref());
+
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            exec.shutdownNow();
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Set<String> names = events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toSet());
+
+        new File(file.toString()).delete();
+
+        assertTrue(names.toString(), names.contains(PREFIX + "LazySeqEval"));
+        assertTrue(names.toString(), names.contains(PREFIX + "Close"));
+        assertTrue(names.toString(), names.contains(PREFIX + "DelayDeref"));
+
+        assertEquals(3, events.stream().filter(e -> e.getEventType().getName().equals(PREFIX + "ParallelSubmit")).count());
+        assertEquals(3, events.stream().filter(e -> e.getEventType().getName().equals(PREFIX + "ParallelTask")).count());
+    }
+}
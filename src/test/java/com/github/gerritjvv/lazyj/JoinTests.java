@@ -0,0 +1,143 @@
+package com.github.gerritjvv.lazyj;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the join operations between two sequences.
+ */
+public class JoinTests {
+
+    @Test
+    public void testHashJoinInner() {
+        Seq<String> seq = SeqUtil.seq(1, 2, 3, 4)
+                .hashJoin(
+                        SeqUtil.seq("1a", "3c", "3cc", "5e"),
+                        Function.identity(),
+                        s -> Integer.parseInt(s.substring(0, 1)),
+                        (v, s) -> v + ":" + s);
+
+        assertEquals(Lists.newArrayList("1:1a", "3:3c", "3:3cc"), seq.toList());
+    }
+
+    @Test
+    public void testHashJoinLeft() {
+        Seq<String> seq = lazyNumbers(4)
+                .hashJoin(
+                        SeqUtil.seq("1a", "3c"),
+                        Function.identity(),
+                        s -> Integer.parseInt(s.substring(0, 1)),
+                        (v, s) -> v + ":" + s,
+                        JoinType.LEFT,
+                        Long.MAX_VALUE);
+
+        assertEquals(Lists.newArrayList("4:null", "3:3c", "2:null", "1:1a"), seq.toList());
+    }
+
+    @Test
+    public void testHashJoinBuildSmallerSideOrder() {
+        //both sides are sized and this is smaller, the table is built from this and other is streamed
+        assertEquals(Lists.newArrayList(1, 2, 3),
+                SeqUtil.seq(3, 1, 2).hashJoin(SeqUtil.seq(1, 2, 3, 4), Function.identity(), Function.identity(), (a, b) -> a).toList());
+
+        //this is not sized, it is streamed and keeps its order
+        assertEquals(Lists.newArrayList(3, 1, 2),
+                SeqUtil.seq(3, 1, 2).map(Function.identity()).hashJoin(SeqUtil.seq(1, 2, 3, 4), Function.identity(), Function.identity(), (a, b) -> a).toList());
+
+        //left joins always stream this
+        assertEquals(Lists.newArrayList(3, 1, 2),
+                SeqUtil.seq(3, 1, 2).hashJoin(SeqUtil.seq(1, 2, 3, 4), Function.identity(), Function.identity(), (a, b) -> a, JoinType.LEFT, Long.MAX_VALUE).toList());
+    }
+
+    @Test
+    public void testHashJoinInfiniteLeft() {
+        Seq<Long> seq = Functional.repeatedly(() -> 1L)
+                .hashJoin(SeqUtil.range(0, 3), Function.identity(), Function.identity(), (a, b) -> a + b);
+
+        assertEquals(Lists.newArrayList(2L, 2L, 2L), seq.take(3).toList());
+    }
+
+    @Test
+    public void testHashJoinSpill() {
+        int len = 5000;
+        AtomicBoolean closed = new AtomicBoolean(false);
+
+        Seq<String> seq = SeqUtil.range(0, len)
+                .map(Long::intValue)
+                .hashJoin(
+                        SeqUtil.range(0, len).map(v -> "v" + v).onClose(() -> closed.set(true)),
+                        v -> v % 1000,
+                        s -> Integer.parseInt(s.substring(1)) % 1000,
+                        (v, s) -> v + ":" + s,
+                        JoinType.INNER,
+                        100);
+
+        List<String> joined = new ArrayList<>(seq.toList());
+        seq.close();
+
+        //each key % 1000 has 5 elements on both sides
+        assertEquals(len * 5, joined.size());
+        assertTrue(closed.get());
+
+        List<String> expected = new ArrayList<>();
+        for (int v = 0; v < len; v++)
+            for (int s = v % 1000; s < len; s += 1000)
+                expected.add(v + ":v" + s);
+
+        Collections.sort(joined);
+        Collections.sort(expected);
+
+        assertEquals(expected, joined);
+    }
+
+    @Test
+    public void testMergeJoin() {
+        Seq<Integer> left = SeqUtil.seq(1, 2, 2, 3, 5);
+        Seq<String> right = SeqUtil.seq("0z", "2a", "2b", "3c", "4d", "5e");
+
+        Seq<String> inner = left.mergeJoin(right, (v, s) -> Integer.compare(v, key(s)), (v, s) -> v + ":" + s);
+        assertEquals(Lists.newArrayList("2:2a", "2:2b", "2:2a", "2:2b", "3:3c", "5:5e"), inner.toList());
+
+        Seq<String> leftJoin = left.mergeJoin(right, (v, s) -> Integer.compare(v, key(s)), (v, s) -> v + ":" + s, JoinType.LEFT);
+        assertEquals(Lists.newArrayList("1:null", "2:2a", "2:2b", "2:2a", "2:2b", "3:3c", "5:5e"), leftJoin.toList());
+
+        Seq<String> full = left.mergeJoin(right, (v, s) -> Integer.compare(v, key(s)), (v, s) -> v + ":" + s, JoinType.FULL);
+        assertEquals(Lists.newArrayList("null:0z", "1:null", "2:2a", "2:2b", "2:2a", "2:2b", "3:3c", "null:4d", "5:5e"), full.toList());
+    }
+
+    @Test
+    public void testMergeJoinInfinite() {
+        //evens joined with multiples of three
+        Seq<Long> evens = SeqUtil.range(0, Long.MAX_VALUE).map(v -> v * 2);
+        Seq<Long> threes = SeqUtil.range(0, Long.MAX_VALUE).map(v -> v * 3);
+
+        Seq<Long> seq = evens.mergeJoin(threes, Long::compare, (a, b) -> a);
+
+        assertEquals(Lists.newArrayList(0L, 6L, 12L, 18L), seq.take(4).toList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHashJoinFullNotSupported() {
+        SeqUtil.seq(1).hashJoin(SeqUtil.seq(1), Function.identity(), Function.identity(), (a, b) -> a, JoinType.FULL, 10);
+    }
+
+    private static int key(String s) {
+        return Integer.parseInt(s.substring(0, 1));
+    }
+
+    private static Seq<Integer> lazyNumbers(int i) {
+        if (i > 0)
+            return Functional.lazySeq(i, () -> lazyNumbers(i - 1));
+        else
+            return Functional.lazySeqEmpty();
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.gerritjvv.lazyj;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -12,6 +13,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.junit.Test;
 import com.github.gerritjvv.lazyj.seq.Cons;
+import com.github.gerritjvv.lazyj.seq.ObjLongPredicate;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -316,6 +318,33 @@ public class LazySeqTests {
         assertEquals(numberOfOnes, seq.count());
     }
 
+    @Test
+    public void testMapIndexedPredicate() {
+        ObjLongPredicate<Integer> evenIndex = (v, i) -> i % 2 == 0;
+
+        Seq<String> seq = Functional.mapIndexed(lazyNumbers(6), evenIndex, (v, i) -> v + ":" + i, 10L)
+                .map(String::toUpperCase)
+                .filter(v -> !v.startsWith("2"));
+
+        assertEquals(Arrays.asList("6:10", "4:12"), seq.toList());
+    }
+
+    @Test
+    public void testFilterIndexed() {
+        assertEquals(Arrays.asList(6, 4, 2), lazyNumbers(6).filterIndexed((v, i) -> i % 2 == 0).toList());
+        assertEquals(Arrays.asList(5, 3, 1), lazyNumbers(6).filter(v -> v != 6).filterIndexed((v, i) -> i % 2 == 0).toList());
+        assertEquals(0, lazyNumbers(6).filterIndexed((v, i) -> false).count());
+    }
+
+    @Test
+    public void testKeepIndexed() {
+        Seq<String> seq = lazyNumbers(6).keepIndexed((v, i) -> i % 3 == 0 ? null : v + ":" + i);
+
+        assertEquals(Arrays.asList("5:1", "4:2", "2:4", "1:5"), seq.toList());
+        assertEquals(Arrays.asList("4:2", "1:5"), seq.filter(v -> !v.endsWith("1") && !v.endsWith("4")).toList());
+        assertEquals(0, lazyNumbers(6).keepIndexed((v, i) -> null).count());
+    }
+
     @Test
     public void testMultipleTakes() {
         int len1 = len1();
@@ -452,6 +481,21 @@ public class LazySeqTests {
         assertEquals(len1 / 2, seq.count());
     }
 
+    @Test
+    public void testMapFilterInterleaved() {
+        //map after filter is merged into the filter node, the stages must still run in call order
+        Seq<String> seq = lazyNumbers(10)
+                .map(i -> i * 10)
+                .filter(i -> i > 20)
+                .map(i -> i + 1)
+                .filter(i -> i % 20 == 1)
+                .map(i -> "v" + i);
+
+        assertEquals(Arrays.asList("v101", "v81", "v61", "v41"), seq.toList());
+        assertEquals(Arrays.asList("v101", "v81", "v61", "v41"), seq.toList());
+        assertEquals(Arrays.asList("v101", "v81", "v61", "v41"), seq.collect(Collectors.toList()));
+    }
+
     @Test
     public void testTake() {
         int len1 = len1();
@@ -479,6 +523,45 @@ public class LazySeqTests {
         seq.forEach(v -> assertEquals(counter.getAndDecrement() - dropN, v.longValue()));
     }
 
+    @Test
+    public void testDropMerge() {
+        //lazyNumbers(10) is [10, 9, ..., 1]
+        assertEquals(Arrays.asList(6, 5, 4, 3, 2, 1), lazyNumbers(10).drop(1).drop(3).toList());
+        assertEquals(Arrays.asList(7, 6), lazyNumbers(10).drop(3).take(2).toList());
+        assertEquals(Arrays.asList(6), lazyNumbers(10).drop(3).take(2).drop(1).toList());
+        assertEquals(Arrays.asList(8, 7, 6), lazyNumbers(10).take(5).drop(2).toList());
+        assertEquals(Arrays.asList(5, 4), lazyNumbers(10).drop(3).take(4).drop(2).take(10).toList());
+
+        assertEquals(0, lazyNumbers(10).drop(3).take(0).count());
+        assertEquals(0, lazyNumbers(10).take(3).drop(5).count());
+        assertEquals(0, lazyNumbers(10).drop(Long.MAX_VALUE).drop(Long.MAX_VALUE).count());
+        assertEquals(10, lazyNumbers(10).drop(-1).drop(0).count());
+        assertEquals(0, lazyNumbers(10).drop(-1).take(-1).count());
+
+        //a slice that takes nothing does not read the dropped prefix
+        AtomicInteger reads = new AtomicInteger(0);
+        assertEquals(0, lazyNumbers(10).filter(v -> reads.incrementAndGet() > 0).drop(5).take(0).count());
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    public void testDropTakeIndexed() {
+        assertEquals(Arrays.asList(12L, 13L, 14L), SeqUtil.range(10, 100).drop(2).take(3).toList());
+        assertEquals(Arrays.asList(3, 4), SeqUtil.seq(1, 2, 3, 4).drop(2).take(10).toList());
+        assertEquals(0, SeqUtil.seq(1, 2, 3, 4).drop(10).count());
+        assertEquals(0, SeqUtil.range(0, 10).take(-1).count());
+    }
+
+    @Test
+    public void testDropTakeWideRange() {
+        assertEquals(Long.MAX_VALUE, SeqUtil.range(-5, Long.MAX_VALUE).count());
+        assertEquals(Long.valueOf(Long.MAX_VALUE - 6), SeqUtil.range(-5, Long.MAX_VALUE).drop(Long.MAX_VALUE - 1).first());
+        assertEquals(Long.valueOf(Long.MAX_VALUE - 5), SeqUtil.range(-5, Long.MAX_VALUE).drop(Long.MAX_VALUE).first());
+        assertEquals(5, SeqUtil.range(-5, Long.MAX_VALUE).drop(Long.MAX_VALUE).take(Long.MAX_VALUE).count());
+        assertEquals(0, SeqUtil.range(0, Long.MAX_VALUE).drop(Long.MAX_VALUE).count());
+        assertEquals(Arrays.asList(Long.MIN_VALUE, Long.MIN_VALUE + 1), SeqUtil.range(Long.MIN_VALUE, Long.MAX_VALUE).take(2).toList());
+    }
+
     @Test
     public void testMapCat() {
         int len1 = ThreadLocalRandom.current().nextInt(5, 20);
@@ -596,6 +679,226 @@ public class LazySeqTests {
         assertEquals(testsum, sum);
     }
 
+    @Test
+    public void testMergeSorted() {
+        Seq<Integer> seq = SeqUtil.mergeSorted(
+                Integer::compare,
+                SeqUtil.seq(1, 4, 7, 10),
+                SeqUtil.seq(2, 5, 8),
+                Functional.lazySeqEmpty(),
+                SeqUtil.seq(3, 6, 9, 11, 12));
+
+        assertEquals(Lists.newArrayList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12), seq.toList());
+    }
+
+    @Test
+    public void testMergeSortedInfinite() {
+        AtomicInteger evens = new AtomicInteger(0);
+        AtomicInteger odds = new AtomicInteger(-1);
+
+        Seq<Integer> seq = SeqUtil.mergeSorted(
+                Integer::compare,
+                Functional.repeatedly(() -> evens.addAndGet(2)),
+                Functional.repeatedly(() -> odds.addAndGet(2)));
+
+        assertEquals(Lists.newArrayList(1, 2, 3, 4, 5, 6), seq.take(6).toList());
+    }
+
+    @Test
+    public void testMergeSortedCloseHandlers() {
+        AtomicBoolean closed1 = new AtomicBoolean(false);
+        AtomicBoolean closed2 = new AtomicBoolean(false);
+
+        Seq<Integer> seq = SeqUtil.mergeSorted(
+                Integer::compare,
+                lazyNumbers(10).sorted().onClose(() -> closed1.set(true)),
+                lazyNumbers(5).sorted().onClose(() -> closed2.set(true)));
+
+        assertEquals(15, seq.count());
+
+        seq.close();
+
+        assertTrue(closed1.get());
+        assertTrue(closed2.get());
+    }
+
+    @Test
+    public void testPartition() {
+        assertEquals(
+                Lists.newArrayList(Lists.newArrayList(1, 2), Lists.newArrayList(3, 4)),
+                SeqUtil.seq(1, 2, 3, 4, 5).partition(2).toList());
+
+        assertEquals(
+                Lists.newArrayList(Lists.newArrayList(1, 2), Lists.newArrayList(3, 4), Lists.newArrayList(5)),
+                SeqUtil.seq(1, 2, 3, 4, 5).partitionAll(2).toList());
+
+        assertEquals(0, Functional.lazySeqEmpty().partitionAll(2).count());
+    }
+
+    @Test
+    public void testPartitionReuseBuffers() {
+        List<Integer> sums = SeqUtil.seq(1, 2, 3, 4, 5)
+                .partitionAll(2, true)
+                .map(list -> list.stream().mapToInt(Integer::intValue).sum())
+                .toList();
+
+        assertEquals(Lists.newArrayList(3, 7, 5), sums);
+    }
+
+    @Test
+    public void testPartitionInfinite() {
+        AtomicInteger counter = new AtomicInteger(0);
+
+        List<Integer> third = Functional.repeatedly(counter::incrementAndGet).partition(3).drop(2).first();
+
+        assertEquals(Lists.newArrayList(7, 8, 9), third);
+    }
+
+    @Test
+    public void testPartitionBy() {
+        assertEquals(
+                Lists.newArrayList(Lists.newArrayList(1, 1), Lists.newArrayList(2), Lists.newArrayList(3, 3)),
+                SeqUtil.seq(1, 1, 2, 3, 3).partitionBy(Function.identity()).toList());
+    }
+
+    @Test
+    public void testWindow() {
+        int len1 = len1();
+        List<Integer> nums = lazyNumbers(len1).toList();
+
+        for (int size = 1; size < 5; size++) {
+            for (int step = 1; step < 7; step++) {
+                List<List<Integer>> expected = new ArrayList<>();
+                for (int i = 0; i + size <= nums.size(); i += step)
+                    expected.add(nums.subList(i, i + size));
+
+                assertEquals(expected, SeqUtil.seq(nums).window(size, step).toList());
+
+                //with reused buffers, only look at each window before the next is realized
+                List<List<Integer>> copies = new ArrayList<>();
+                SeqUtil.seq(nums).window(size, step, true).forEach(w -> copies.add(new ArrayList<>(w)));
+
+                assertEquals(expected, copies);
+            }
+        }
+    }
+
+    @Test
+    public void testFoldRange() {
+        long len = 1000000;
+
+        long sum = SeqUtil.range(0, len).fold(ForkJoinPool.commonPool(), 1000, () -> 0L, Long::sum, (acc, v) -> acc + v);
+
+        assertEquals(len * (len - 1) / 2, sum);
+    }
+
+    @Test
+    public void testFoldMapFilterArray() {
+        Integer[] arr = new Integer[len1()];
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = i;
+
+        Seq<String> seq = SeqUtil.seq(arr).filter(v -> v % 2 == 0).map(String::valueOf);
+
+        //the combine order must follow the sequence order
+        String folded = seq.fold(ForkJoinPool.commonPool(), 7, () -> "", String::concat, (acc, v) -> acc + v + ",");
+        String reduced = seq.reduce("", (acc, v) -> acc + v + ",");
+
+        assertEquals(reduced, folded);
+    }
+
+    @Test
+    public void testFoldSequential() {
+        int len1 = len1();
+
+        long sum = lazyNumbers(len1).fold(ForkJoinPool.commonPool(), 10, () -> 0L, Long::sum, (acc, v) -> acc + v);
+
+        assertEquals((long) len1 * (len1 + 1) / 2, sum);
+    }
+
+    @Test
+    public void testSeqArrayStopsAtNull() {
+        assertEquals(Lists.newArrayList(1, 2), SeqUtil.seq(1, 2, null, 4).toList());
+        assertEquals(Lists.newArrayList(3), SeqUtil.seq(new Integer[]{1, 2, 3}, 2).toList());
+        assertEquals(0, SeqUtil.seq(new Integer[]{1}, 3).count());
+        assertEquals(Lists.newArrayList(2), SeqUtil.seq(1, 2, null, 4).drop(1).take(5).toList());
+        assertEquals(0, SeqUtil.seq(1, 2, null, 4).drop(3).count());
+    }
+
+    @Test
+    public void testSeqArrayNotCopied() {
+        Integer[] arr = {1, 2, 3, null, 5};
+        Seq<Integer> seq = SeqUtil.seq(arr);
+
+        arr[3] = 4;
+        assertEquals(Lists.newArrayList(1, 2, 3, 4, 5), seq.toList());
+        assertEquals(5, seq.count());
+    }
+
+    @Test
+    public void testGroupBy() {
+        Map<Boolean, List<Long>> groups = SeqUtil.range(0, 100000).groupBy(v -> v % 2 == 0);
+
+        assertEquals(2, groups.size());
+        assertEquals(
+                SeqUtil.range(0, 100000).filter(v -> v % 2 == 0).toList(),
+                groups.get(true));
+        assertEquals(
+                SeqUtil.range(0, 100000).filter(v -> v % 2 != 0).toList(),
+                groups.get(false));
+    }
+
+    @Test
+    public void testCountByAndFrequencies() {
+        Map<Long, Long> counts = SeqUtil.range(0, 100000).countBy(v -> v % 10);
+
+        assertEquals(10, counts.size());
+        counts.values().forEach(c -> assertEquals(10000L, c.longValue()));
+
+        int len1 = ThreadLocalRandom.current().nextInt(5, 20);
+        Map<Integer, Long> frequencies = lazyNumbers(len1).mapcat(i -> constantlyN(i, i)).frequencies();
+
+        assertEquals(len1, frequencies.size());
+        frequencies.forEach((k, v) -> assertEquals(k.longValue(), v.longValue()));
+    }
+
+    @Test
+    public void testReductions() {
+        assertEquals(
+                Lists.newArrayList(0, 1, 3, 6, 10),
+                SeqUtil.seq(1, 2, 3, 4).reductions(0, (a, b) -> a + b).toList());
+
+        assertEquals(Lists.newArrayList(0), Functional.<Integer>lazySeqEmpty().reductions(0, (a, b) -> a + b).toList());
+
+        //running offsets over an infinite sequence
+        assertEquals(
+                Lists.newArrayList(0L, 10L, 20L, 30L),
+                Functional.repeatedly(() -> 10).reductions(0L, (acc, v) -> acc + v).take(4).toList());
+    }
+
+    @Test
+    public void testScanLongAndDouble() {
+        assertTrue(Arrays.equals(
+                new long[]{0, 1, 3, 6, 10},
+                SeqUtil.seq(1, 2, 3, 4).scanLong(0, (acc, v) -> acc + v).toArray()));
+
+        assertTrue(Arrays.equals(
+                new double[]{1, 0.5, 0.25},
+                Functional.repeatedly(() -> 2).scanDouble(1, (acc, v) -> acc / v).limit(3).toArray()));
+    }
+
+    @Test
+    public void testScanCloseClosesSeq() {
+        AtomicInteger closed = new AtomicInteger();
+        Seq<Integer> seq = SeqUtil.seq(1, 2, 3).onClose(closed::incrementAndGet);
+
+        seq.scanLong(0, (acc, v) -> acc + v).close();
+        assertEquals(1, closed.get());
+
+        seq.scanDouble(0, (acc, v) -> acc + v).close();
+        assertEquals(2, closed.get());
+    }
+
     private static Seq<Integer> constantlyN(int n, int v) {
         if (n > 0)
             return Functional.lazySeq(v, () -> constantlyN(n - 1, v));
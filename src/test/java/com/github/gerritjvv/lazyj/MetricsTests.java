@@ -0,0 +1,94 @@
+package com.github.gerritjvv.lazyj;
+
+import com.github.gerritjvv.lazyj.metrics.InMemoryMetricsSink;
+import com.github.gerritjvv.lazyj.metrics.LatencyHistogram;
+import com.github.gerritjvv.lazyj.metrics.MetricsRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the per stage metrics instrumentation.
+ */
+public class MetricsTests {
+
+    @After
+    public void unregister() {
+        MetricsRegistry.unregister();
+    }
+
+    @Test
+    public void testInstrumentStages() {
+        InMemoryMetricsSink sink = new InMemoryMetricsSink();
+
+        Seq<Long> seq = SeqUtil.range(0, 100)
+                .filter(v -> v % 2 == 0)
+                .instrument("evens", sink)
+                .map(v -> v * 10)
+                .filter(v -> v % 3 == 0)
+                .instrument("threes", sink);
+
+        assertEquals(17, seq.count());
+
+        InMemoryMetricsSink.StageMetrics evens = sink.stage("evens");
+        InMemoryMetricsSink.StageMetrics threes = sink.stage("threes");
+
+        assertEquals(50, evens.producedCount());
+        assertEquals(50, evens.filteredCount());
+        assertEquals(17, threes.producedCount());
+        assertEquals(33, threes.filteredCount());
+
+        //one realization per element and one for the end of the sequence
+        assertEquals(51, evens.latency().count());
+        assertEquals(18, threes.latency().count());
+
+        seq.close();
+        assertEquals(1, evens.closedCount());
+        assertEquals(1, threes.closedCount());
+    }
+
+    @Test
+    public void testInstrumentIsLazy() {
+        InMemoryMetricsSink sink = new InMemoryMetricsSink();
+
+        Seq<Long> seq = SeqUtil.range(0, Long.MAX_VALUE).instrument("all", sink);
+        assertEquals(0, sink.stage("all").producedCount());
+
+        assertEquals(5, seq.take(5).count());
+        assertEquals(5, sink.stage("all").producedCount());
+    }
+
+    @Test
+    public void testRegistryOptIn() {
+        Seq<Integer> seq = SeqUtil.seq(1, 2, 3);
+        assertSame(seq, seq.instrument("none"));
+
+        InMemoryMetricsSink sink = new InMemoryMetricsSink();
+        MetricsRegistry.register(sink);
+
+        assertEquals(3, seq.instrument("global").count());
+        assertEquals(3, sink.stage("global").producedCount());
+        assertNull(sink.stage("none"));
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long v = 1; v <= 1000; v++)
+            histogram.record(v * 1000);
+
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_500, histogram.mean(), 0.001);
+
+        //within the 12.5% bucket precision
+        assertTrue(Math.abs(histogram.percentile(0.5) - 500_000) <= 500_000 * 0.125);
+        assertTrue(Math.abs(histogram.percentile(0.99) - 990_000) <= 990_000 * 0.125);
+        assertEquals(1_000_000, histogram.percentile(1));
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.gerritjvv.lazyj;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.github.gerritjvv.lazyj.plan.SeqPlan;
+import com.github.gerritjvv.lazyj.plan.SeqProfile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the explain and profile operations.
+ */
+public class PlanTests {
+
+    @Test
+    public void testExplainMergedStages() {
+        SeqPlan plan = SeqUtil.range(0, 10)
+                .map(v -> v + 1)
+                .map(v -> v * 2)
+                .filter(v -> v > 2)
+                .filter(v -> v < 100)
+                .take(5)
+                .explain();
+
+        assertEquals(
+                "[RangeSeq range [0, 10), FilterMergeSeq map x2, filter x2 (memoizing), TakeMergeSeq take 5 (memoizing)]",
+                plan.stages().toString());
+    }
+
+    @Test
+    public void testExplainLazyBoundary() {
+        Seq<Integer> seq = Functional.lazySeq(() -> SeqUtil.seq(1, 2, 3)).map(v -> v + 1);
+
+        List<SeqPlan.Stage> stages = seq.explain().stages();
+
+        assertEquals(2, stages.size());
+        assertTrue(stages.get(0).isLazyBoundary());
+        assertEquals("map x1", stages.get(1).operation());
+
+        //explain does not realize anything, after realizing the source is visible
+        seq.first();
+        List<String> nodes = seq.explain().stages().stream().map(SeqPlan.Stage::node).collect(Collectors.toList());
+
+        assertFalse(seq.explain().stages().get(0).isLazyBoundary());
+        assertEquals("MapMergeSeq", nodes.get(nodes.size() - 1));
+    }
+
+    @Test
+    public void testExplainRealizedCons() {
+        SeqPlan plan = Functional.lazySeq(1, () -> Functional.lazySeq(2, Functional::lazySeqEmpty)).explain();
+
+        assertEquals("LazySeq unrealized (memoizing) (lazy boundary)", plan.stages().get(0).toString());
+        assertEquals("Cons 1 realized", plan.stages().get(1).toString());
+    }
+
+    @Test
+    public void testExplainLongRealizedConsCapped() {
+        Seq<Integer> seq = SeqUtil.empty();
+        for (int i = 0; i < 5000; i++)
+            seq = seq.cons(i);
+
+        SeqPlan plan = seq.explain();
+
+        assertEquals(1, plan.stages().size());
+        assertEquals("Cons more than 1000 realized", plan.stages().get(0).toString());
+    }
+
+    @Test
+    public void testExplainMapAfterFilterFuses() {
+        SeqPlan plan = SeqUtil.range(0, 10)
+                .filter(v -> v > 2)
+                .map(v -> v + 1)
+                .map(v -> v * 2)
+                .filter(v -> v < 100)
+                .explain();
+
+        assertEquals("[RangeSeq range [0, 10), FilterMergeSeq filter x1, map x2, filter x1 (memoizing)]", plan.stages().toString());
+    }
+
+    @Test
+    public void testExplainDropTakeSlice() {
+        Seq<Integer> seq = Functional.lazySeq(() -> SeqUtil.seq(1, 2, 3, 4, 5, 6, 7, 8)).map(v -> v + 1);
+
+        assertEquals("DropMergeSeq drop 3 (memoizing)", last(seq.drop(1).drop(2).explain()));
+        assertEquals("DropMergeSeq slice [3, 5) (memoizing)", last(seq.drop(1).drop(2).take(2).explain()));
+        assertEquals("DropMergeSeq slice [2, 5) (memoizing)", last(seq.take(5).drop(2).explain()));
+    }
+
+    @Test
+    public void testExplainIndexedSlice() {
+        assertEquals("[RangeSeq range [12, 15)]", SeqUtil.range(10, 100).drop(2).take(3).explain().stages().toString());
+        assertEquals("[ArraySeq array [1, 3)]", SeqUtil.seq(1, 2, 3, 4).drop(1).take(5).drop(0).take(2).explain().stages().toString());
+    }
+
+    @Test
+    public void testExplainIndexedStagesFuse() {
+        SeqPlan plan = SeqUtil.range(0, 10)
+                .keepIndexed((v, i) -> i > 2 ? v : null)
+                .map(v -> v + 1)
+                .filter(v -> v < 8)
+                .explain();
+
+        assertEquals("[RangeSeq range [0, 10), MapIndexSeq mapIndexed from index 0, filter x1, map x1, filter x1 (memoizing)]",
+                plan.stages().toString());
+        assertEquals("MapIndexSeq filterIndexed from index 0 (memoizing)",
+                last(SeqUtil.range(0, 10).filterIndexed((v, i) -> i > 2).explain()));
+    }
+
+    @Test
+    public void testProfile() {
+        SeqProfile<Long> profile = SeqUtil.range(0, 1000)
+                .map(v -> v * 2)
+                .filter(v -> v % 3 == 0)
+                .map(Long::toHexString)
+                .take(500)
+                .profile(Seq::count);
+
+        assertEquals(334L, profile.result().longValue());
+
+        List<SeqProfile.Cost> stages = profile.stages();
+
+        assertEquals(2, stages.size());
+        assertEquals("RangeSeq", stages.get(0).description());
+        assertEquals("FilterMergeSeq map x1, filter x1, map x1", stages.get(1).description());
+
+        //each function is measured, the last map only for the elements that passed the filter
+        assertEquals(1000 + 1000 + 334, stages.get(1).calls());
+        assertTrue(profile.totalCpuNanos() > 0);
+    }
+
+    private static String last(SeqPlan plan) {
+        List<SeqPlan.Stage> stages = plan.stages();
+        return stages.get(stages.size() - 1).toString();
+    }
+}
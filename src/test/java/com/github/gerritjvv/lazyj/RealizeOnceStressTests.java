@@ -0,0 +1,140 @@
+package com.github.gerritjvv.lazyj;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Stress the realize once semantics of sequences shared between threads.<br/>
+ * Each round starts all threads on the same unrealized sequence at the same time, so that they race to realize each node,
+ * and checks that every node is computed exactly once and that all threads see the same elements.
+ */
+public class RealizeOnceStressTests {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 200;
+    private static final int LEN = 500;
+
+    private ExecutorService exec;
+
+    @Before
+    public void setup() {
+        exec = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void shutdown() {
+        exec.shutdownNow();
+    }
+
+    @Test
+    public void testLazySeqRealizedOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            AtomicInteger calls = new AtomicInteger();
+            Seq<Integer> seq = counted(0, LEN, calls);
+
+            List<List<Integer>> results = race(() -> walk(seq));
+
+            assertEquals(LEN, calls.get());
+
+            for (List<Integer> result : results)
+                assertEquals(results.get(0), result);
+
+            assertEquals(LEN, results.get(0).size());
+        }
+    }
+
+    @Test
+    public void testMapMergeSeqFirstMappedOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            AtomicInteger calls = new AtomicInteger();
+
+            Seq<Integer> seq = counted(0, 1, new AtomicInteger()).map(v -> {
+                calls.incrementAndGet();
+                return v + 1;
+            });
+
+            List<List<Integer>> results = race(() -> {
+                List<Integer> list = new ArrayList<>();
+                list.add(seq.first());
+                return list;
+            });
+
+            assertEquals(1, calls.get());
+
+            for (List<Integer> result : results)
+                assertEquals(1, result.get(0).intValue());
+        }
+    }
+
+    @Test
+    public void testMappedSeqSameElements() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            AtomicInteger calls = new AtomicInteger();
+            Seq<Integer> seq = counted(0, LEN, calls).map(v -> v * 2).filter(v -> v % 3 != 0);
+
+            List<List<Integer>> results = race(() -> walk(seq));
+
+            assertEquals(LEN, calls.get());
+
+            for (List<Integer> result : results)
+                assertEquals(results.get(0), result);
+        }
+    }
+
+    /**
+     * Run task in all threads, starting them together.
+     */
+    private List<List<Integer>> race(Callable<List<Integer>> task) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++)
+            futures.add(exec.submit(() -> {
+                barrier.await();
+                return task.call();
+            }));
+
+        List<List<Integer>> results = new ArrayList<>();
+        for (Future<List<Integer>> future : futures)
+            results.add(future.get());
+
+        return results;
+    }
+
+    private static List<Integer> walk(Seq<Integer> seq) {
+        List<Integer> list = new ArrayList<>();
+        Integer v;
+
+        while ((v = seq.first()) != null) {
+            list.add(v);
+            seq = seq.next();
+        }
+
+        return list;
+    }
+
+    /**
+     * A lazy range that counts the number of times a node is realized.
+     */
+    private static Seq<Integer> counted(int from, int to, AtomicInteger calls) {
+        return Functional.lazySeq(() -> {
+            if (from >= to)
+                return Functional.lazySeqEmpty();
+
+            calls.incrementAndGet();
+            return Functional.lazySeq(from, () -> counted(from + 1, to, calls));
+        });
+    }
+}
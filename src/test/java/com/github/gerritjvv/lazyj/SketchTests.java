@@ -0,0 +1,90 @@
+package com.github.gerritjvv.lazyj;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+
+import com.github.gerritjvv.lazyj.sketch.HyperLogLog;
+import com.github.gerritjvv.lazyj.sketch.QuantileSketch;
+import com.github.gerritjvv.lazyj.sketch.ReservoirSample;
+import com.google.common.hash.Hashing;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the sketch operations.
+ */
+public class SketchTests {
+
+    @Test
+    public void testApproxDistinct() {
+        long len = 100000;
+
+        //each value is repeated twice
+        long estimate = SeqUtil.range(0, len * 2).map(v -> v % len).approxDistinct();
+
+        assertEquals(len, estimate, len * 0.03);
+    }
+
+    @Test
+    public void testHyperLogLogMerge() {
+        HyperLogLog a = SeqUtil.range(0, 50000).sketch(HyperLogLog::new);
+        HyperLogLog b = SeqUtil.range(25000, 75000).sketch(HyperLogLog::new);
+
+        assertEquals(75000, a.merge(b).estimate(), 75000 * 0.03);
+    }
+
+    @Test
+    public void testHyperLogLogHashFunction() {
+        //"Aa" and "BB" have the same hashCode, so all 2^12 strings do
+        List<String> strings = SeqUtil.range(0, 1 << 12).map(i -> {
+            StringBuilder buff = new StringBuilder();
+            for (int bit = 0; bit < 12; bit++)
+                buff.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            return buff.toString();
+        }).toList();
+
+        assertEquals(1, SeqUtil.seq(strings).sketch(HyperLogLog::new).estimate());
+
+        HyperLogLog sketch = SeqUtil.seq(strings).sketch(() ->
+                new HyperLogLog(HyperLogLog.DEFAULT_PRECISION, v -> Hashing.murmur3_128().hashString((String) v, StandardCharsets.UTF_8).asLong()));
+
+        assertEquals(strings.size(), sketch.estimate(), strings.size() * 0.03);
+    }
+
+    @Test
+    public void testQuantiles() {
+        QuantileSketch sketch = SeqUtil.range(0, 100000).sketch(QuantileSketch::new);
+
+        assertEquals(100000, sketch.count());
+        assertEquals(0, sketch.quantile(0), 0);
+        assertEquals(99999, sketch.quantile(1), 0);
+        assertEquals(50000, sketch.quantile(0.5), 100000 * 0.02);
+        assertEquals(99000, sketch.quantile(0.99), 100000 * 0.02);
+    }
+
+    @Test
+    public void testReservoirSample() {
+        ReservoirSample<Long> sketch = SeqUtil.range(0, 100000).sketch(() -> new ReservoirSample<>(100));
+        List<Long> sample = sketch.sample();
+
+        assertEquals(100000, sketch.count());
+        assertEquals(100, sample.size());
+        assertEquals(100, new HashSet<>(sample).size());
+        assertTrue(sample.stream().allMatch(v -> v >= 0 && v < 100000));
+    }
+
+    @Test
+    public void testTapIsLazy() {
+        QuantileSketch sketch = new QuantileSketch();
+
+        Seq<Long> seq = SeqUtil.range(0, Long.MAX_VALUE).tap(sketch);
+        assertEquals(0, sketch.count());
+
+        assertEquals(10, seq.take(10).count());
+        assertEquals(10, sketch.count());
+        assertEquals(9, sketch.quantile(1), 0);
+    }
+}
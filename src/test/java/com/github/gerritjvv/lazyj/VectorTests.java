@@ -0,0 +1,128 @@
+package com.github.gerritjvv.lazyj;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.github.gerritjvv.lazyj.vec.PersistentVector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the persistent vector, its transient builder and its seq view.
+ */
+public class VectorTests {
+
+    //sizes around the tail, the first trie level and the first root overflow
+    private static final int[] SIZES = {0, 1, 31, 32, 33, 64, 65, 1024, 1056, 1057, 33 * 32 * 32 + 1};
+
+    @Test
+    public void testConjNth() {
+        for (int size : SIZES) {
+            PersistentVector<Integer> vec = PersistentVector.empty();
+
+            for (int i = 0; i < size; i++)
+                vec = vec.conj(i);
+
+            assertEquals(size, vec.size());
+
+            for (int i = 0; i < size; i++)
+                assertEquals(i, vec.nth(i).intValue());
+        }
+    }
+
+    @Test
+    public void testTransientEqualsConj() {
+        for (int size : SIZES) {
+            PersistentVector<Integer> vec = PersistentVector.empty();
+            PersistentVector.Transient<Integer> builder = PersistentVector.<Integer>empty().asTransient();
+
+            for (int i = 0; i < size; i++) {
+                vec = vec.conj(i);
+                builder.conj(i);
+            }
+
+            PersistentVector<Integer> built = builder.persistent();
+
+            assertEquals(vec, built);
+            assertEquals(vec.hashCode(), built.hashCode());
+        }
+    }
+
+    @Test
+    public void testOlderVersionsUnchanged() {
+        PersistentVector<Integer> v1 = SeqUtil.vec(SeqUtil.range(0, 1025).map(Long::intValue));
+        PersistentVector<Integer> v2 = v1.conj(-1);
+        PersistentVector<Integer> v3 = v1.asTransient().conj(-2).conj(-3).persistent();
+
+        assertEquals(1025, v1.size());
+        assertEquals(-1, v2.nth(1025).intValue());
+        assertEquals(-2, v3.nth(1025).intValue());
+        assertEquals(-3, v3.nth(1026).intValue());
+        assertEquals(1026, v2.size());
+        assertEquals(v1, v2.subList(0, 1025));
+        assertEquals(v1, v3.subList(0, 1025));
+    }
+
+    @Test
+    public void testSeqView() {
+        PersistentVector<Long> vec = SeqUtil.vec(SeqUtil.range(0, 2000));
+        Seq<Long> seq = vec.seq();
+
+        List<Long> iterated = new ArrayList<>();
+        for (Long v : seq)
+            iterated.add(v);
+
+        List<Long> forEach = new ArrayList<>();
+        seq.forEach(forEach::add);
+
+        assertEquals(vec, iterated);
+        assertEquals(vec, forEach);
+        assertEquals(vec, seq.toList());
+        assertEquals(2000, seq.count());
+        assertEquals(1999000L, seq.reduce(0L, Long::sum).longValue());
+        assertEquals(1999000L, seq.fold(ForkJoinPool.commonPool(), 100, () -> 0L, Long::sum, Long::sum).longValue());
+    }
+
+    @Test
+    public void testSeqSlice() {
+        Seq<Long> seq = SeqUtil.vec(SeqUtil.range(0, 100)).seq();
+
+        assertEquals("[VectorSeq vector [30, 70)]", seq.drop(30).take(40).explain().stages().toString());
+        assertEquals(SeqUtil.range(30, 70).toList(), seq.drop(30).take(40).toList());
+        assertEquals(SeqUtil.range(30, 70).toList(), seq.drop(30).take(40).reduce(new ArrayList<Long>(), (l, v) -> {
+            l.add(v);
+            return l;
+        }));
+        assertEquals(0, seq.drop(200).count());
+
+        Iterator<Long> it = seq.drop(31).take(2).iterator();
+        assertEquals(31L, it.next().longValue());
+        assertEquals(32L, it.next().longValue());
+        assertTrue(!it.hasNext());
+    }
+
+    @Test
+    public void testVecOfWholeSeqIsShared() {
+        PersistentVector<Long> vec = SeqUtil.vec(SeqUtil.range(0, 10));
+
+        assertSame(vec, SeqUtil.vec(vec.seq()));
+        assertEquals(vec.subList(2, 10), SeqUtil.vec(vec.seq().drop(2)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTransientAfterPersistent() {
+        PersistentVector.Transient<Integer> builder = PersistentVector.<Integer>empty().asTransient();
+        builder.conj(1).persistent();
+        builder.conj(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConjNull() {
+        PersistentVector.<Integer>empty().conj(null);
+    }
+}